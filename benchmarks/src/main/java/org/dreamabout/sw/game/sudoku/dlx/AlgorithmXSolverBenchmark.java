@@ -0,0 +1,92 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Measures the three phases of AlgorithmXSolver separately: building the sparse matrix, turning it into the
+ * toroidal list and the search itself, plus the whole solve() for reference. Every invocation takes the next
+ * puzzle of the set, so a set with several puzzles is measured as a mix. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlgorithmXSolverBenchmark {
+
+    @Param({
+            "sudoku_easy_1.txt",
+            "sudoku_intermediate_1.txt",
+            "sudoku_difficult_1.txt",
+            "sudoku_not_fun_1.txt",
+            "sudoku_hardest_ever_1.txt",
+            "hard_puzzles.txt"
+    })
+    public String puzzles;
+
+    private List<int[][]> grids;
+    private List<int[][]> matrices;
+    private int next;
+
+    // the solver with its linked lists already built, consumed by the search benchmark
+    private AlgorithmXSolver linked;
+
+    @Setup(Level.Trial)
+    public void loadPuzzles() {
+        grids = BenchmarkPuzzles.load(puzzles);
+        // the matrix is only read while linking, so one matrix per puzzle can be linked over and over
+        matrices = grids.stream().map(grid -> new AlgorithmXSolver(grid).createMatrix(grid)).toList();
+    }
+
+    // the search unlinks the columns it covers and stops as soon as it has a solution, so every search needs
+    // freshly built lists. Level.Invocation is fine here, a single search is well above a microsecond.
+    @Setup(Level.Invocation)
+    public void linkNextPuzzle() {
+        int i = nextIndex();
+        linked = new AlgorithmXSolver(grids.get(i));
+        linked.createDoubleLinkedLists(matrices.get(i));
+    }
+
+    @Benchmark
+    public int[][] createMatrix() {
+        var grid = grids.get(nextIndex());
+        return new AlgorithmXSolver(grid).createMatrix(grid);
+    }
+
+    @Benchmark
+    public AlgorithmXSolver createDoubleLinkedLists() {
+        int i = nextIndex();
+        var solver = new AlgorithmXSolver(grids.get(i));
+        solver.createDoubleLinkedLists(matrices.get(i));
+        return solver;
+    }
+
+    @Benchmark
+    public SolveResult search() {
+        return linked.searchLinkedLists(1);
+    }
+
+    @Benchmark
+    public SolveResult solve() {
+        return new AlgorithmXSolver(grids.get(nextIndex())).solve(1);
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (next + 1) % grids.size();
+        return i;
+    }
+}
@@ -0,0 +1,45 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.dreamabout.sw.game.sudoku.io.PuzzleLines;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.dreamabout.sw.game.sudoku.dlx.Constant.N;
+
+/* Loads the puzzles a benchmark runs on from the classpath. A resource is either a single puzzle in the
+ * N-line format of the test resources, or a collection with one puzzle per line. */
+final class BenchmarkPuzzles {
+
+    private BenchmarkPuzzles() {
+    }
+
+    static List<int[][]> load(String resourceName) {
+        var stream = BenchmarkPuzzles.class.getClassLoader().getResourceAsStream(resourceName);
+        if (stream == null) {
+            throw new IllegalArgumentException("Puzzle resource: %s does not exist".formatted(resourceName));
+        }
+        try (var reader = new BufferedReader(new InputStreamReader(stream))) {
+            var lines = reader.lines().filter(line -> !line.isBlank()).map(String::strip).toList();
+            var puzzles = new ArrayList<int[][]>();
+            if (lines.getFirst().length() == PuzzleLines.LINE_LENGTH) {
+                for (String line : lines) {
+                    var grid = new int[N][N];
+                    PuzzleLines.parse(line, grid);
+                    puzzles.add(grid);
+                }
+            } else {
+                var solver = new SudokuSolver();
+                solver.loadSudokuFromStream(BenchmarkPuzzles.class.getClassLoader().getResourceAsStream(resourceName));
+                puzzles.add(solver.getGridArray());
+            }
+            return puzzles;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
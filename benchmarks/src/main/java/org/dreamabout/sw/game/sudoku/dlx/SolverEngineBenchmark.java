@@ -0,0 +1,58 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Measures every SolverEngine end to end on the same puzzles as AlgorithmXSolverBenchmark. The engine is created
+ * once per trial and reused, the way the batch solver uses it. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverEngineBenchmark {
+
+    @Param({
+            "sudoku_easy_1.txt",
+            "sudoku_intermediate_1.txt",
+            "sudoku_difficult_1.txt",
+            "sudoku_not_fun_1.txt",
+            "sudoku_hardest_ever_1.txt",
+            "hard_puzzles.txt"
+    })
+    public String puzzles;
+
+    @Param({"DLX_OBJECT", "DLX_ARRAY", "BITBOARD"})
+    public EngineType engine;
+
+    private List<SudokuGrid> grids;
+    private SolverEngine solver;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void loadPuzzles() {
+        grids = BenchmarkPuzzles.load(puzzles).stream().map(SudokuGrid::new).toList();
+        solver = engine.create();
+    }
+
+    @Benchmark
+    public SolveResult solve() {
+        var grid = grids.get(next);
+        next = (next + 1) % grids.size();
+        return solver.solve(grid, 1);
+    }
+}
@@ -0,0 +1,30 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/* Entry point of benchmarks.jar. Accepts the usual JMH command line options (a benchmark regexp, -p puzzles=...,
+ * -f, -wi and so on) and always adds the GC profiler, so every result comes with the allocation rate
+ * (gc.alloc.rate and gc.alloc.rate.norm, the bytes allocated per operation) next to the throughput. */
+public final class SudokuBenchmarks {
+
+    private SudokuBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var commandLine = new CommandLineOptions(args);
+        var options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        try {
+            new Runner(options).run();
+        } catch (RunnerException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
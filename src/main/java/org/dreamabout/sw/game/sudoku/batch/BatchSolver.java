@@ -0,0 +1,449 @@
+package org.dreamabout.sw.game.sudoku.batch;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import lombok.Setter;
+import org.dreamabout.sw.game.sudoku.cache.CachingEngine;
+import org.dreamabout.sw.game.sudoku.cache.SolutionCache;
+import org.dreamabout.sw.game.sudoku.dlx.EngineType;
+import org.dreamabout.sw.game.sudoku.dlx.SolverEngine;
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzleReader;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzleWriter;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzles;
+import org.dreamabout.sw.game.sudoku.io.GridFormat;
+import org.dreamabout.sw.game.sudoku.io.MappedPuzzleReader;
+import org.dreamabout.sw.game.sudoku.io.PuzzleLines;
+import org.dreamabout.sw.game.sudoku.io.PuzzleSource;
+import org.dreamabout.sw.game.sudoku.propagation.PropagatingEngine;
+import org.dreamabout.sw.game.sudoku.vector.VectorBatchSolver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.dreamabout.sw.game.sudoku.dlx.Constant.N;
+
+/**
+ * Solves a whole file of puzzles in the one-puzzle-per-line format (81 characters, '.' or '0' for an empty cell).
+ * Larger puzzles are solved with --grid-size, every line of the file then holds a 16x16 or 25x25 puzzle.
+ * The input is streamed in chunks of lines; every chunk is solved on a worker thread that keeps its own
+ * SolverEngine (DLX_ARRAY unless chosen otherwise), and the chunks are written to the output file in input order. At most a few chunks per thread
+ * are in flight at any time, so memory stays constant no matter how large the input is.
+ * Input files are read through a MappedPuzzleReader, so the workers decode their chunks straight from the mapped
+ * file; other readers are split into chunks of lines. An input file in the packed BinaryPuzzles format is detected
+ * by its header; its grid size is taken from the file and the solutions are written in the same format.
+ * A puzzle that has no solution is written back unchanged and counted as unsolved in the summary. A line that
+ * cannot be read as a puzzle is written as an empty grid, so the output stays aligned with the input, counted as
+ * malformed in the summary, and the run goes on with the next puzzle.
+ * With --vector every worker first runs the puzzles of its chunks through a VectorBatchSolver, one puzzle per SIMD
+ * lane, and only hands the puzzles the lanes could not finish to its engine; the latency of every puzzle is then
+ * its share of the time of its batch.
+ */
+@Command(name = "sudoku-batch", description = "Solves a file with one Sudoku puzzle per line")
+public class BatchSolver {
+
+    @Option(name = {"-i", "--input"}, description = "Path to the puzzle file, one puzzle per line or packed binary")
+    private String inputPath;
+
+    @Option(name = {"-o", "--output"}, description = "Path to the file the solutions are written to, in input order and in the format of the input")
+    private String outputPath;
+
+    @Setter
+    @Option(name = {"-e", "--engine"}, description = "Solver engine to use: DLX_OBJECT, DLX_ARRAY (default), DLX_PARALLEL, DLX_PORTFOLIO or BITBOARD")
+    private EngineType engine = EngineType.DLX_ARRAY;
+
+    @Setter
+    @Option(name = {"-p", "--propagate"}, description = "Fill in naked singles, hidden singles and locked candidates before the engine runs")
+    private boolean propagate;
+
+    @Setter
+    @Option(name = {"-n", "--grid-size"}, description = "Number of rows of every puzzle: 9 (default), 16, 25, ...")
+    private int gridSize = N;
+
+    @Setter
+    @Option(name = {"-t", "--threads"}, description = "Number of worker threads (default: number of cores)")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Setter
+    @Option(name = {"-c", "--chunk-size"}, description = "Number of puzzles handed to a worker at once (default 1024)")
+    private int chunkSize = 1024;
+
+    @Setter
+    @Option(name = {"--vector"}, description = "Propagate batches of puzzles side by side with the Vector API before the engine runs (needs --add-modules jdk.incubator.vector)")
+    private boolean vector;
+
+    @Option(name = {"--cache"}, description = "Cache the solutions of up to this many puzzles, symmetric copies included (default: no cache)")
+    private int cacheEntries;
+
+    // shared by the engines of all the worker threads
+    private SolutionCache cache;
+
+    public static void main(String[] args) throws Exception {
+        var argsParser = SingleCommand.singleCommand(BatchSolver.class);
+        var resultParser = argsParser.parseWithResult(args);
+        if (resultParser.wasSuccessful()) {
+            var cmd = resultParser.getCommand();
+            System.out.print(cmd.run().format());
+            if (cmd.cache != null) {
+                System.out.print(cmd.cache.statistics().format());
+            }
+        } else {
+            System.err.println(resultParser.getErrors());
+        }
+    }
+
+    private BatchSummary run() throws IOException {
+        if (inputPath == null || outputPath == null) {
+            throw new IllegalArgumentException("Both the input and the output file are required");
+        }
+        if (cache == null && cacheEntries > 0) {
+            setCacheEntries(cacheEntries);
+        }
+        var input = Path.of(inputPath);
+        if (!Files.exists(input)) {
+            throw new IllegalArgumentException("File: %s does not exist".formatted(inputPath));
+        }
+        if (BinaryPuzzles.isBinary(input)) {
+            try (var puzzles = BinaryPuzzleReader.open(input);
+                 var writer = BinaryPuzzleWriter.create(Path.of(outputPath), puzzles.gridSize())) {
+                return solve(puzzles, writer);
+            }
+        }
+        SudokuGrid.boxSize(gridSize);
+        try (var puzzles = MappedPuzzleReader.open(input);
+             var output = Files.newOutputStream(Path.of(outputPath))) {
+            // the chunks are already large blocks of bytes, they go to the file without another buffer
+            var chunks = puzzles.split(chunkSize * (PuzzleLines.lineLength(gridSize) + 1)).iterator();
+            return solve(chunks, gridSize, GridFormat.LINE, chunk -> output.write(chunk.bytes(), 0, chunk.length()));
+        }
+    }
+
+    /* Solves every puzzle of a binary file and writes one solution record per puzzle to the writer, which must
+     * be for the same grid size. The caller closes the writer, which completes its header. */
+    public BatchSummary solve(BinaryPuzzleReader input, BinaryPuzzleWriter output) throws IOException {
+        if (input.gridSize() != output.gridSize()) {
+            throw new IllegalArgumentException("Cannot write %dx%d solutions to a file of %dx%d puzzles"
+                    .formatted(input.gridSize(), input.gridSize(), output.gridSize(), output.gridSize()));
+        }
+        return solve(input.split(chunkSize).iterator(), input.gridSize(), GridFormat.BINARY,
+                chunk -> output.writeRecords(chunk.bytes(), 0, chunk.puzzles()));
+    }
+
+    /* Solves every puzzle line of the reader and writes one solution line per puzzle to the writer.
+     * Blank lines are skipped. */
+    public BatchSummary solve(Reader input, Writer output) throws IOException {
+        var reader = input instanceof BufferedReader buffered ? buffered : new BufferedReader(input);
+        var summary = solve(new LineChunks(reader, chunkSize), gridSize, GridFormat.LINE, new CharChunkWriter(output));
+        output.flush();
+        return summary;
+    }
+
+    private BatchSummary solve(Iterator<? extends PuzzleSource> chunks, int gridSize, GridFormat format, ChunkWriter output)
+            throws IOException {
+        checkVectorModule();
+        var totals = new Totals(output);
+        // the buffers of the chunks that have been written, reused for the next chunks
+        Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+        var startTime = System.nanoTime();
+        Deque<Future<SolvedChunk>> inFlight = new ArrayDeque<>();
+        int maxInFlight = 4 * threads; // enough to keep every worker busy while the oldest chunk is being written
+        // every worker thread gets its own solver, which is reused for all the puzzles of all its chunks
+        var solvers = ThreadLocal.withInitial(this::createEngine);
+        var vectorSolvers = vector ? ThreadLocal.withInitial(() -> new VectorBatchSolver(gridSize, createEngine())) : null;
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            while (chunks.hasNext()) {
+                var chunk = chunks.next();
+                inFlight.add(pool.submit(() -> vectorSolvers != null
+                        ? solveChunk(vectorSolvers.get(), chunk, gridSize, format, buffers.poll())
+                        : solveChunk(solvers.get(), chunk, gridSize, format, buffers.poll())));
+                // the writer only ever waits for the oldest chunk, so the output keeps the input order
+                while (inFlight.size() >= maxInFlight) {
+                    buffers.add(totals.write(await(inFlight.removeFirst())));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                buffers.add(totals.write(await(inFlight.removeFirst())));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new BatchSummary(totals.puzzles, totals.unsolved, totals.malformed, totals.firstMalformed,
+                System.nanoTime() - startTime, totals.latencies);
+    }
+
+    /* Puts a cache of up to maxEntries solved puzzles in front of the engines of all the worker threads. */
+    public SolutionCache setCacheEntries(int maxEntries) {
+        cacheEntries = maxEntries;
+        cache = maxEntries > 0 ? new SolutionCache(maxEntries) : null;
+        return cache;
+    }
+
+    // the Vector API is an incubator module, without it VectorBatchSolver cannot even be loaded
+    private void checkVectorModule() {
+        if (vector && ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            throw new IllegalStateException("--vector needs the Vector API, run the JVM with --add-modules jdk.incubator.vector");
+        }
+    }
+
+    private SolverEngine createEngine() {
+        var solver = propagate ? new PropagatingEngine(engine.create()) : engine.create();
+        return cache != null ? new CachingEngine(solver, cache) : solver;
+    }
+
+    // solves the puzzles of a chunk and encodes the solutions on the worker, into the buffer of a chunk that has
+    // already been written if there is one, so the output allocates nothing per puzzle
+    private static SolvedChunk solveChunk(SolverEngine solver, PuzzleSource puzzles, int gridSize, GridFormat format, byte[] buffer) {
+        int maxBytes = format.maxBytes(gridSize);
+        var bytes = buffer != null ? buffer : new byte[64 * maxBytes];
+        int length = 0;
+        var latencies = new LatencyHistogram();
+        int count = 0;
+        int unsolved = 0;
+        var malformed = new Malformed();
+        var grid = new int[gridSize][gridSize];
+        var sudokuGrid = new SudokuGrid(grid);
+        Read read;
+        while ((read = read(puzzles, grid)) != Read.END) {
+            if (read == Read.MALFORMED) {
+                malformed.add(count);
+                if (bytes.length - length < maxBytes) {
+                    bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+                }
+                length += format.encode(grid, bytes, length);
+                count++;
+                continue;
+            }
+            var startTime = System.nanoTime();
+            var result = solver.solve(sudokuGrid);
+            latencies.record(System.nanoTime() - startTime);
+            if (!result.isSolved()) {
+                unsolved++;
+            }
+            // an unsolved puzzle is written as it was given
+            if (bytes.length - length < maxBytes) {
+                bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+            }
+            length += format.encode(result.isSolved() ? result.solution() : grid, bytes, length);
+            count++;
+        }
+        return new SolvedChunk(bytes, length, count, latencies, unsolved, malformed);
+    }
+
+    // the same for a VectorBatchSolver: the puzzles are read and solved lanes() at a time
+    private static SolvedChunk solveChunk(VectorBatchSolver solver, PuzzleSource puzzles, int gridSize, GridFormat format, byte[] buffer) {
+        int maxBytes = format.maxBytes(gridSize);
+        var bytes = buffer != null ? buffer : new byte[64 * maxBytes];
+        int length = 0;
+        var latencies = new LatencyHistogram();
+        int count = 0;
+        int unsolved = 0;
+        var malformed = new Malformed();
+        var grids = new int[solver.lanes()][gridSize][gridSize];
+        var solved = new boolean[solver.lanes()];
+        Read read;
+        do {
+            // a batch ends early at a malformed puzzle, which must not reach a lane; it is written after the batch
+            int batch = 0;
+            read = Read.END;
+            while (batch < grids.length && (read = read(puzzles, grids[batch])) == Read.PUZZLE) {
+                batch++;
+            }
+            if (bytes.length - length < (batch + 1) * maxBytes) {
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + (batch + 1) * maxBytes));
+            }
+            if (batch > 0) {
+                var startTime = System.nanoTime();
+                unsolved += batch - solver.solve(grids, batch, solved);
+                long latency = (System.nanoTime() - startTime) / batch;
+                for (int i = 0; i < batch; i++) {
+                    latencies.record(latency);
+                    // the solver leaves an unsolved puzzle as it was given
+                    length += format.encode(grids[i], bytes, length);
+                }
+                count += batch;
+            }
+            if (read == Read.MALFORMED) {
+                malformed.add(count);
+                length += format.encode(grids[batch], bytes, length);
+                count++;
+            }
+        } while (read != Read.END);
+        return new SolvedChunk(bytes, length, count, latencies, unsolved, malformed);
+    }
+
+    // reads the next puzzle of the chunk; one that cannot be decoded is left in the grid as the empty grid
+    private static Read read(PuzzleSource puzzles, int[][] grid) {
+        try {
+            return puzzles.next(grid) ? Read.PUZZLE : Read.END;
+        } catch (IllegalArgumentException e) {
+            for (int[] row : grid) {
+                Arrays.fill(row, 0);
+            }
+            return Read.MALFORMED;
+        }
+    }
+
+    private static SolvedChunk await(Future<SolvedChunk> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // the solutions of a chunk, encoded in the first length bytes
+    private record SolvedChunk(byte[] bytes, int length, int puzzles, LatencyHistogram latencies, int unsolved,
+                               Malformed malformed) {
+    }
+
+    private enum Read {
+        PUZZLE, MALFORMED, END
+    }
+
+    // the puzzles of a chunk that could not be read: how many, and the first one, counted from the start of the chunk
+    private static final class Malformed {
+        private int count;
+        private int first = -1;
+
+        private void add(int puzzle) {
+            if (count++ == 0) {
+                first = puzzle;
+            }
+        }
+    }
+
+    private interface ChunkWriter {
+        void write(SolvedChunk chunk) throws IOException;
+    }
+
+    // reads the lines of a reader in chunks, each chunk is parsed by the worker that solves it
+    private static final class LineChunks implements Iterator<PuzzleSource> {
+        private final BufferedReader reader;
+        private final int chunkSize;
+        private List<String> next;
+
+        private LineChunks(BufferedReader reader, int chunkSize) {
+            this.reader = reader;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = readChunk();
+            }
+            return !next.isEmpty();
+        }
+
+        @Override
+        public PuzzleSource next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            var lines = next;
+            next = null;
+            return new PuzzleSource() {
+                private int current = 0;
+
+                @Override
+                public boolean next(int[][] grid) {
+                    if (current == lines.size()) {
+                        return false;
+                    }
+                    // moves on before parsing, so a malformed line is skipped like the mapped cursors skip it
+                    PuzzleLines.parse(lines.get(current++), grid);
+                    return true;
+                }
+            };
+        }
+
+        private List<String> readChunk() {
+            var lines = new ArrayList<String>(chunkSize);
+            try {
+                String line;
+                while (lines.size() < chunkSize && (line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        lines.add(line.strip());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return lines;
+        }
+    }
+
+    // the totals are only ever touched by the thread writing the output
+    private static final class Totals {
+        private final ChunkWriter output;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long puzzles;
+        private long unsolved;
+        private long malformed;
+        private long firstMalformed = -1;
+
+        private Totals(ChunkWriter output) {
+            this.output = output;
+        }
+
+        // returns the buffer of the chunk, which can be reused once it is written
+        private byte[] write(SolvedChunk chunk) throws IOException {
+            output.write(chunk);
+            latencies.add(chunk.latencies());
+            unsolved += chunk.unsolved();
+            if (firstMalformed < 0 && chunk.malformed().count > 0) {
+                firstMalformed = puzzles + chunk.malformed().first;
+            }
+            malformed += chunk.malformed().count;
+            puzzles += chunk.puzzles();
+            return chunk.bytes();
+        }
+    }
+
+    // writes the lines of the chunks to a Writer through a reused char buffer; the lines are ASCII, so every byte
+    // is a char
+    private static final class CharChunkWriter implements ChunkWriter {
+        private final Writer output;
+        private char[] chars = new char[0];
+
+        private CharChunkWriter(Writer output) {
+            this.output = output;
+        }
+
+        @Override
+        public void write(SolvedChunk chunk) throws IOException {
+            if (chars.length < chunk.length()) {
+                chars = new char[chunk.length()];
+            }
+            for (int i = 0; i < chunk.length(); i++) {
+                chars[i] = (char) chunk.bytes()[i];
+            }
+            output.write(chars, 0, chunk.length());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.dreamabout.sw.game.sudoku.batch;
+
+import java.util.concurrent.TimeUnit;
+
+/* Totals of a batch run: how many puzzles were read, how many of them could not be solved, how many could not even
+ * be read and the index of the first of those, counted from 0, or -1, the wall-clock time of the whole run and the
+ * distribution of the time spent solving single puzzles. */
+public record BatchSummary(long puzzles, long unsolved, long malformed, long firstMalformed, long elapsedNanos,
+                           LatencyHistogram latencies) {
+
+    public double puzzlesPerSecond() {
+        return elapsedNanos == 0 ? 0 : puzzles * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public String format() {
+        var summary = """
+                Puzzles:     %d (%d unsolved, %d malformed)
+                Elapsed:     %d ms
+                Throughput:  %.0f puzzles/sec
+                Latency:     p50 %s, p90 %s, p99 %s, p99.9 %s, max %s
+                """.formatted(puzzles, unsolved, malformed, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), puzzlesPerSecond(),
+                micros(latencies.percentile(0.50)), micros(latencies.percentile(0.90)),
+                micros(latencies.percentile(0.99)), micros(latencies.percentile(0.999)), micros(latencies.max()));
+        // a malformed puzzle is written as an empty grid, the first one tells where to look in the input
+        return malformed == 0 ? summary : summary + "Malformed:   first at puzzle %d, counted from 0%n".formatted(firstMalformed);
+    }
+
+    private static String micros(long nanos) {
+        return "%.1f us".formatted(nanos / 1000.0);
+    }
+}
@@ -0,0 +1,252 @@
+package org.dreamabout.sw.game.sudoku.batch;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import lombok.Setter;
+import org.dreamabout.sw.game.sudoku.batch.SolutionValidator.Verdict;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzleReader;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzles;
+import org.dreamabout.sw.game.sudoku.io.MappedPuzzleReader;
+import org.dreamabout.sw.game.sudoku.io.PuzzleSource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.dreamabout.sw.game.sudoku.dlx.Constant.N;
+
+/**
+ * Checks a file of solutions against the file of their puzzles without solving anything: the solution in record i
+ * must fill every cell, keep every clue of puzzle i and repeat no digit in a row, column or block. Either file may
+ * be in the one-puzzle-per-line format or in the packed BinaryPuzzles format. Both files are mapped and cut into
+ * chunks of the same number of records, so chunk i of the puzzles and chunk i of the solutions hold the same
+ * records; every chunk pair is decoded and checked on a worker thread with its own SolutionValidator and grids,
+ * so nothing is allocated per record. The index of every invalid record, counted from 0, is reported with its
+ * problem, in file order. A record that only one of the files has is reported as MISSING, one that cannot be
+ * decoded as MALFORMED; the check goes on with the next record either way.
+ */
+@Command(name = "sudoku-validate", description = "Checks a file of Sudoku solutions against the file of their puzzles")
+public class BatchValidator {
+
+    @Setter
+    @Option(name = {"-p", "--puzzles"}, description = "Path to the puzzle file, one puzzle per line or packed binary")
+    private String puzzlesPath;
+
+    @Setter
+    @Option(name = {"-s", "--solutions"}, description = "Path to the solution file, one solution per line or packed binary")
+    private String solutionsPath;
+
+    @Setter
+    @Option(name = {"-o", "--report"}, description = "Path to the file the invalid records are written to (default: standard output)")
+    private String reportPath;
+
+    @Setter
+    @Option(name = {"-n", "--grid-size"}, description = "Number of rows of every puzzle of a text file: 9 (default), 16, 25, ...")
+    private int gridSize = N;
+
+    @Setter
+    @Option(name = {"-t", "--threads"}, description = "Number of worker threads (default: number of cores)")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Setter
+    @Option(name = {"-c", "--chunk-size"}, description = "Number of records handed to a worker at once (default 4096)")
+    private int chunkSize = 4096;
+
+    public static void main(String[] args) throws Exception {
+        var argsParser = SingleCommand.singleCommand(BatchValidator.class);
+        var resultParser = argsParser.parseWithResult(args);
+        if (resultParser.wasSuccessful()) {
+            var summary = resultParser.getCommand().run();
+            System.out.print(summary.format());
+            if (summary.invalid() > 0) {
+                System.exit(1);
+            }
+        } else {
+            System.err.println(resultParser.getErrors());
+        }
+    }
+
+    /* Checks the solution file against the puzzle file and writes the invalid records to the report. */
+    public ValidationSummary run() throws IOException {
+        if (puzzlesPath == null || solutionsPath == null) {
+            throw new IllegalArgumentException("Both the puzzle and the solution file are required");
+        }
+        try (var puzzles = Input.open(puzzlesPath);
+             var solutions = Input.open(solutionsPath)) {
+            // a binary file knows its grid size, a text file has the one of the options
+            int n = puzzles.binary != null ? puzzles.gridSize() : solutions.binary != null ? solutions.gridSize() : gridSize;
+            // fails early for an unsupported grid size, instead of on every worker
+            new SolutionValidator(n);
+            if (puzzles.binary != null && solutions.binary != null && puzzles.gridSize() != solutions.gridSize()) {
+                throw new IllegalArgumentException("Cannot check %dx%d solutions against %dx%d puzzles"
+                        .formatted(solutions.gridSize(), solutions.gridSize(), puzzles.gridSize(), puzzles.gridSize()));
+            }
+            if (reportPath != null) {
+                try (var report = Files.newBufferedWriter(Path.of(reportPath))) {
+                    return validate(puzzles.split(chunkSize, n), solutions.split(chunkSize, n), n, report);
+                }
+            }
+            // standard output stays open
+            return validate(puzzles.split(chunkSize, n), solutions.split(chunkSize, n), n,
+                    new BufferedWriter(new OutputStreamWriter(System.out)));
+        }
+    }
+
+    /* Checks chunk i of the solutions against chunk i of the puzzles, for all i, and writes one line per invalid
+     * record to the report: its index and its Verdict. All the chunks but the last of each list must hold
+     * chunkSize records, as the split methods of MappedPuzzleReader and BinaryPuzzleReader make them. A source
+     * that throws an IllegalArgumentException for a record it cannot decode must move past it, as theirs do. */
+    public ValidationSummary validate(List<PuzzleSource> puzzles, List<PuzzleSource> solutions, int n, Writer report)
+            throws IOException {
+        var startTime = System.nanoTime();
+        Deque<Future<CheckedChunk>> inFlight = new ArrayDeque<>();
+        int maxInFlight = 4 * threads; // enough to keep every worker busy while the oldest chunk is being reported
+        // every worker thread gets its own validator and grids, which are reused for all the records of all its chunks
+        var workers = ThreadLocal.withInitial(() -> new Worker(n));
+        int chunks = Math.max(puzzles.size(), solutions.size());
+        long records = 0;
+        long invalid = 0;
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < chunks || !inFlight.isEmpty(); ) {
+                if (i < chunks && inFlight.size() < maxInFlight) {
+                    var puzzleChunk = chunk(puzzles, i);
+                    var solutionChunk = chunk(solutions, i);
+                    long first = (long) i * chunkSize;
+                    inFlight.add(pool.submit(() -> workers.get().check(puzzleChunk, solutionChunk, first)));
+                    i++;
+                    continue;
+                }
+                // the report only ever waits for the oldest chunk, so it keeps the file order
+                var chunk = await(inFlight.removeFirst());
+                for (var record : chunk.invalid()) {
+                    report.write(record.index() + " " + record.verdict() + System.lineSeparator());
+                }
+                records += chunk.records();
+                invalid += chunk.invalid().size();
+            }
+        }
+        report.flush();
+        return new ValidationSummary(records, invalid, System.nanoTime() - startTime);
+    }
+
+    // the chunk of a file that has fewer chunks than the other one is empty
+    private static PuzzleSource chunk(List<PuzzleSource> chunks, int index) {
+        return index < chunks.size() ? chunks.get(index) : grid -> false;
+    }
+
+    private static CheckedChunk await(Future<CheckedChunk> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record InvalidRecord(long index, Verdict verdict) {
+    }
+
+    // the number of records of a chunk and the ones that are invalid, in file order
+    private record CheckedChunk(int records, List<InvalidRecord> invalid) {
+    }
+
+    private static final class Worker {
+        private final SolutionValidator validator;
+        private final int[][] puzzle;
+        private final int[][] solution;
+        // set when a record of the current pair could not be decoded
+        private boolean malformed;
+
+        private Worker(int n) {
+            this.validator = new SolutionValidator(n);
+            this.puzzle = new int[n][n];
+            this.solution = new int[n][n];
+        }
+
+        private CheckedChunk check(PuzzleSource puzzles, PuzzleSource solutions, long first) {
+            List<InvalidRecord> invalid = new ArrayList<>();
+            int records = 0;
+            while (true) {
+                malformed = false;
+                boolean hasPuzzle = next(puzzles, puzzle);
+                boolean hasSolution = next(solutions, solution);
+                if (!hasPuzzle && !hasSolution) {
+                    break;
+                }
+                var verdict = !hasPuzzle || !hasSolution ? Verdict.MISSING
+                        : malformed ? Verdict.MALFORMED
+                        : validator.check(puzzle, solution);
+                if (verdict != Verdict.VALID) {
+                    invalid.add(new InvalidRecord(first + records, verdict));
+                }
+                records++;
+            }
+            return new CheckedChunk(records, invalid);
+        }
+
+        // a record that cannot be decoded is still a record, the source has already moved past it
+        private boolean next(PuzzleSource source, int[][] grid) {
+            try {
+                return source.next(grid);
+            } catch (IllegalArgumentException e) {
+                malformed = true;
+                return true;
+            }
+        }
+    }
+
+    // a puzzle file in either format
+    private static final class Input implements AutoCloseable {
+        private final BinaryPuzzleReader binary;
+        private final MappedPuzzleReader text;
+
+        private Input(BinaryPuzzleReader binary, MappedPuzzleReader text) {
+            this.binary = binary;
+            this.text = text;
+        }
+
+        private static Input open(String path) throws IOException {
+            var file = Path.of(path);
+            if (!Files.exists(file)) {
+                throw new IllegalArgumentException("File: %s does not exist".formatted(path));
+            }
+            return BinaryPuzzles.isBinary(file)
+                    ? new Input(BinaryPuzzleReader.open(file), null)
+                    : new Input(null, MappedPuzzleReader.open(file));
+        }
+
+        private int gridSize() {
+            return binary.gridSize();
+        }
+
+        private List<PuzzleSource> split(int chunkSize, int n) {
+            return binary != null ? binary.split(chunkSize) : text.split(chunkSize, n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (binary != null) {
+                binary.close();
+            } else {
+                text.close();
+            }
+        }
+    }
+}
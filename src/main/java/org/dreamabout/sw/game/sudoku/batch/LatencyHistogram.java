@@ -0,0 +1,72 @@
+package org.dreamabout.sw.game.sudoku.batch;
+
+/* A log-linear histogram of latencies in nanoseconds. Every power of two is split into 16 linear buckets, so a
+ * recorded value is off by at most 1/16 (about 6%), and the whole range of a long fits in 1024 counters no matter
+ * how many values are recorded. That keeps the percentiles of millions of puzzles in constant memory. */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long count;
+    private long max;
+
+    public void record(long nanos) {
+        counts[bucketOf(Math.max(nanos, 0))]++;
+        count++;
+        max = Math.max(max, nanos);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /* The latency that the given fraction (0..1) of the recorded values does not exceed, rounded up to the
+     * top of its bucket. */
+    public long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = bucket & (SUB_BUCKETS - 1);
+        long upperBound = ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+        return upperBound < 0 ? Long.MAX_VALUE : upperBound; // the very last bucket ends at Long.MAX_VALUE
+    }
+}
@@ -0,0 +1,80 @@
+package org.dreamabout.sw.game.sudoku.batch;
+
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+
+import java.util.Arrays;
+
+/* Checks that a grid is a solution of a puzzle without solving anything: every cell holds a digit, every clue of
+ * the puzzle is kept, and no digit is repeated in a row, column or block. The digits seen in every row, column and
+ * block are kept as bit masks, so a check is one pass over the cells with a few ands and ors per cell; a grid of
+ * n rows without a repeated digit in any row has all the n digits in every row, so that pass is all it takes.
+ * The masks are reused for every check, nothing is allocated. Instances are reusable, but not thread safe. */
+public final class SolutionValidator {
+
+    private static final int MAX_N = 25; // one bit per digit in an int
+
+    public enum Verdict {
+        VALID,
+        /* A cell is empty or holds a value that is not a digit of the grid. */
+        INCOMPLETE,
+        /* A cell disagrees with the clue of the puzzle. */
+        CLUE_MISMATCH,
+        /* A digit appears twice in a row, column or block. */
+        DUPLICATE,
+        /* One of the two files has no record at this index. */
+        MISSING,
+        /* The record of one of the two files cannot be decoded, a text line has a wrong length or a character
+         * that is not a cell. */
+        MALFORMED
+    }
+
+    private final int n;
+    // the block of every cell, row by row, so the loop over the cells needs no division
+    private final int[] boxOf;
+    private final int[] columns;
+    private final int[] boxes;
+
+    public SolutionValidator(int n) {
+        int size = SudokuGrid.boxSize(n);
+        if (n > MAX_N) {
+            throw new IllegalArgumentException("Unsupported grid size: %dx%d".formatted(n, n));
+        }
+        this.n = n;
+        this.boxOf = new int[n * n];
+        for (int cell = 0; cell < n * n; cell++) {
+            boxOf[cell] = (cell / n / size) * size + cell % n / size;
+        }
+        this.columns = new int[n];
+        this.boxes = new int[n];
+    }
+
+    /* The first problem of the solution in row order, or VALID. */
+    public Verdict check(int[][] puzzle, int[][] solution) {
+        Arrays.fill(columns, 0);
+        Arrays.fill(boxes, 0);
+        int cell = 0;
+        for (int r = 0; r < n; r++) {
+            int[] clues = puzzle[r];
+            int[] values = solution[r];
+            int row = 0;
+            for (int c = 0; c < n; c++) {
+                int value = values[c];
+                if (value < 1 || value > n) {
+                    return Verdict.INCOMPLETE;
+                }
+                if (clues[c] != 0 && clues[c] != value) {
+                    return Verdict.CLUE_MISMATCH;
+                }
+                int bit = 1 << (value - 1);
+                int box = boxOf[cell++];
+                if (((row | columns[c] | boxes[box]) & bit) != 0) {
+                    return Verdict.DUPLICATE;
+                }
+                row |= bit;
+                columns[c] |= bit;
+                boxes[box] |= bit;
+            }
+        }
+        return Verdict.VALID;
+    }
+}
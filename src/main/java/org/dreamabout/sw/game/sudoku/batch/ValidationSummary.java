@@ -0,0 +1,20 @@
+package org.dreamabout.sw.game.sudoku.batch;
+
+import java.util.concurrent.TimeUnit;
+
+/* Totals of a validation run: how many pairs of a puzzle and a solution were checked, how many of them were invalid
+ * and the wall-clock time of the whole run. */
+public record ValidationSummary(long records, long invalid, long elapsedNanos) {
+
+    public double recordsPerSecond() {
+        return elapsedNanos == 0 ? 0 : records * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public String format() {
+        return """
+                Records:     %d (%d invalid)
+                Elapsed:     %d ms
+                Throughput:  %.0f records/sec
+                """.formatted(records, invalid, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), recordsPerSecond());
+    }
+}
@@ -0,0 +1,242 @@
+package org.dreamabout.sw.game.sudoku.bitboard;
+
+import org.dreamabout.sw.game.sudoku.dlx.SolveResult;
+import org.dreamabout.sw.game.sudoku.dlx.SolverEngine;
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/* Solver engine that keeps the digits still available in every row, column and block as N-bit masks, one int per
+ * unit, instead of an exact cover matrix. Each step fills the empty cell with the fewest candidates (a bitCount
+ * of the three masks or-ed together) and tries its candidates one bit at a time. When no cell is forced, the units
+ * are checked for a digit that fits in only one of their cells, which is the same choice the smallest column of
+ * Dancing Links makes. Backtracking just clears the bits again, so apart from copying out the solutions nothing
+ * is allocated while searching.
+ * Works for any square grid with N <= 25, i.e. up to a 25x25 puzzle with 5x5 blocks. Instances are reusable, but
+ * not thread safe. */
+public class BitboardSolver implements SolverEngine {
+
+    private static final int MAX_N = 25; // the largest square that still fits one bit per digit into an int
+    private static final int NONE = -1;
+    private static final int DEAD_END = -2;
+
+    private int n;
+    private int size;
+    private int allDigits; // n bits set, one for every digit
+
+    // the digits already used in every row, column and block: bit d - 1 is set when digit d is used
+    private int[] rowUsed;
+    private int[] colUsed;
+    private int[] blockUsed;
+    // the current value of every cell, row by row, and the cells that are still empty
+    private int[] cells;
+    private int[] empty;
+    private int emptyCount;
+    // the cells of every row, column and block, in this order
+    private int[][] units;
+
+    private final List<int[][]> solutions = new ArrayList<>();
+    private int maxSolutions;
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions) {
+        return solve(grid.getGrid(), maxSolutions);
+    }
+
+    public SolveResult solve(int[][] grid, int maxSolutions) {
+        if (maxSolutions < 1) {
+            throw new IllegalArgumentException("maxSolutions must be at least 1, was: " + maxSolutions);
+        }
+        this.maxSolutions = maxSolutions;
+        solutions.clear();
+        if (placeClues(grid)) {
+            search(0);
+        }
+        return SolveResult.of(solutions, maxSolutions);
+    }
+
+    // fills the masks from the clues, returns false if two clues already contradict each other
+    private boolean placeClues(int[][] grid) {
+        resize(grid.length);
+        Arrays.fill(rowUsed, 0);
+        Arrays.fill(colUsed, 0);
+        Arrays.fill(blockUsed, 0);
+        emptyCount = 0;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int value = grid[r][c];
+                int cell = r * n + c;
+                cells[cell] = value;
+                if (value == 0) {
+                    empty[emptyCount++] = cell;
+                    continue;
+                }
+                if (value < 0 || value > n) {
+                    throw new IllegalArgumentException("Invalid value %d at row %d, column %d".formatted(value, r, c));
+                }
+                int bit = 1 << (value - 1);
+                int b = blockIndex(r, c);
+                if (((rowUsed[r] | colUsed[c] | blockUsed[b]) & bit) != 0) {
+                    return false;
+                }
+                rowUsed[r] |= bit;
+                colUsed[c] |= bit;
+                blockUsed[b] |= bit;
+            }
+        }
+        return true;
+    }
+
+    private void resize(int n) {
+        if (n == this.n) {
+            return;
+        }
+        int size = (int) Math.round(Math.sqrt(n));
+        if (size * size != n || n > MAX_N) {
+            throw new IllegalArgumentException("Unsupported grid size: %dx%d".formatted(n, n));
+        }
+        this.n = n;
+        this.size = size;
+        this.allDigits = (1 << n) - 1;
+        rowUsed = new int[n];
+        colUsed = new int[n];
+        blockUsed = new int[n];
+        cells = new int[n * n];
+        empty = new int[n * n];
+        units = new int[3 * n][n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int cell = r * n + c;
+                units[r][c] = cell;
+                units[n + c][r] = cell;
+                int b = blockIndex(r, c);
+                units[2 * n + b][(r % size) * size + (c % size)] = cell;
+            }
+        }
+    }
+
+    // fills empty[k..] one cell per level. Returns true once maxSolutions solutions have been found.
+    private boolean search(int k) {
+        if (k == emptyCount) {
+            solutions.add(toGrid());
+            return solutions.size() >= maxSolutions;
+        }
+        // pick the most constrained of the remaining empty cells and move it to position k
+        int best = k;
+        int bestCandidates = 0;
+        int bestCount = Integer.MAX_VALUE;
+        for (int i = k; i < emptyCount; i++) {
+            int cell = empty[i];
+            int candidates = candidates(cell / n, cell % n);
+            int count = Integer.bitCount(candidates);
+            if (count < bestCount) {
+                best = i;
+                bestCandidates = candidates;
+                bestCount = count;
+                if (count <= 1) {
+                    break; // a dead end or a forced move, nothing can beat it
+                }
+            }
+        }
+        if (bestCount == 0) {
+            return false;
+        }
+        if (bestCount > 1) {
+            // no cell is forced, but a digit that only fits in one cell of a unit is
+            int hiddenSingle = findHiddenSingle();
+            if (hiddenSingle == DEAD_END) {
+                return false;
+            }
+            if (hiddenSingle != NONE) {
+                int hiddenCell = hiddenSingle / n;
+                best = indexOfEmpty(hiddenCell, k);
+                bestCandidates = 1 << (hiddenSingle % n);
+            }
+        }
+        int cell = empty[best];
+        empty[best] = empty[k];
+        empty[k] = cell;
+
+        int r = cell / n;
+        int c = cell % n;
+        int b = blockIndex(r, c);
+        boolean stop = false;
+        for (int remaining = bestCandidates; remaining != 0 && !stop; remaining &= remaining - 1) {
+            int bit = remaining & -remaining;
+            rowUsed[r] |= bit;
+            colUsed[c] |= bit;
+            blockUsed[b] |= bit;
+            cells[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+            stop = search(k + 1);
+            rowUsed[r] &= ~bit;
+            colUsed[c] &= ~bit;
+            blockUsed[b] &= ~bit;
+        }
+        cells[cell] = 0;
+        empty[k] = empty[best];
+        empty[best] = cell;
+        return stop;
+    }
+
+    // returns cell * n + digit index of a digit that has a single place left in some unit, DEAD_END if a digit has
+    // no place left at all in a unit that still needs it, or NONE
+    private int findHiddenSingle() {
+        for (int u = 0; u < units.length; u++) {
+            int once = 0; // digits that are a candidate in at least one empty cell of the unit
+            int twice = 0; // digits that are a candidate in at least two of them
+            for (int cell : units[u]) {
+                if (cells[cell] == 0) {
+                    int candidates = candidates(cell / n, cell % n);
+                    twice |= once & candidates;
+                    once |= candidates;
+                }
+            }
+            if ((allDigits & ~unitUsed(u) & ~once) != 0) {
+                return DEAD_END;
+            }
+            int singles = once & ~twice;
+            if (singles != 0) {
+                int bit = singles & -singles;
+                for (int cell : units[u]) {
+                    if (cells[cell] == 0 && (candidates(cell / n, cell % n) & bit) != 0) {
+                        return cell * n + Integer.numberOfTrailingZeros(bit);
+                    }
+                }
+            }
+        }
+        return NONE;
+    }
+
+    private int unitUsed(int u) {
+        if (u < n) {
+            return rowUsed[u];
+        }
+        return u < 2 * n ? colUsed[u - n] : blockUsed[u - 2 * n];
+    }
+
+    private int indexOfEmpty(int cell, int from) {
+        int i = from;
+        while (empty[i] != cell) {
+            i++;
+        }
+        return i;
+    }
+
+    private int candidates(int r, int c) {
+        return ~(rowUsed[r] | colUsed[c] | blockUsed[blockIndex(r, c)]) & allDigits;
+    }
+
+    private int blockIndex(int r, int c) {
+        return (c / size) + ((r / size) * size);
+    }
+
+    private int[][] toGrid() {
+        int[][] solved = new int[n][n];
+        for (int r = 0; r < n; r++) {
+            System.arraycopy(cells, r * n, solved[r], 0, n);
+        }
+        return solved;
+    }
+}
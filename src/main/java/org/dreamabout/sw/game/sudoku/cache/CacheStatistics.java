@@ -0,0 +1,15 @@
+package org.dreamabout.sw.game.sudoku.cache;
+
+/* A snapshot of the counters of a SolutionCache. */
+public record CacheStatistics(long hits, long misses, long evictions, int size, int maxEntries) {
+
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public String format() {
+        return "Cache:       %d hits, %d misses (%.1f%% hit rate), %d evictions, %d/%d entries%n"
+                .formatted(hits, misses, 100 * hitRate(), evictions, size, maxEntries);
+    }
+}
@@ -0,0 +1,66 @@
+package org.dreamabout.sw.game.sudoku.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.dreamabout.sw.game.sudoku.dlx.SearchBudget;
+import org.dreamabout.sw.game.sudoku.dlx.SolveResult;
+import org.dreamabout.sw.game.sudoku.dlx.SolverEngine;
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* Looks every puzzle up in a SolutionCache before handing it to another engine. The puzzle is brought into its
+ * CanonicalForm first, so a puzzle that is only a relabeled, transposed or shuffled copy of one seen before is a
+ * hit as well. On a miss the engine solves the canonical puzzle and the solutions are stored; either way they are
+ * mapped back onto the original puzzle. A hit costs the canonicalization and the mapping, a few microseconds.
+ * Searches that ran out of their budget are not cached. */
+@RequiredArgsConstructor
+public class CachingEngine implements SolverEngine {
+
+    private final SolverEngine engine;
+    private final SolutionCache cache;
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions) {
+        return solve(grid, maxSolutions, SearchBudget.UNLIMITED);
+    }
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions, SearchBudget budget) {
+        if (maxSolutions < 1) {
+            throw new IllegalArgumentException("maxSolutions must be at least 1, was: " + maxSolutions);
+        }
+        var form = CanonicalForm.of(grid.getGrid());
+        var entry = cache.get(form.key(), maxSolutions);
+        if (entry != null) {
+            var solutions = new ArrayList<int[][]>();
+            for (int i = 0; i < Math.min(maxSolutions, entry.solutions().size()); i++) {
+                solutions.add(form.toOriginal(unpack(entry.solutions().get(i), form.grid().length)));
+            }
+            return SolveResult.of(solutions, maxSolutions);
+        }
+        var result = engine.solve(new SudokuGrid(form.grid()), maxSolutions, budget);
+        if (!result.isExhausted()) {
+            cache.put(form.key(), new SolutionCache.Entry(result.solutions().stream().map(CachingEngine::pack).toList(), !result.limitReached()));
+        }
+        List<int[][]> solutions = result.solutions().stream().map(form::toOriginal).toList();
+        return new SolveResult(solutions, result.solutionCount(), result.limitReached(), result.exhaustion(), result.statistics());
+    }
+
+    private static byte[] pack(int[][] solution) {
+        int n = solution.length;
+        var cells = new byte[n * n];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (byte) solution[i / n][i % n];
+        }
+        return cells;
+    }
+
+    private static int[][] unpack(byte[] cells, int n) {
+        var solution = new int[n][n];
+        for (int i = 0; i < cells.length; i++) {
+            solution[i / n][i % n] = cells[i];
+        }
+        return solution;
+    }
+}
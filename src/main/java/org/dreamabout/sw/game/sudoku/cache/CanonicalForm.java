@@ -0,0 +1,187 @@
+package org.dreamabout.sw.game.sudoku.cache;
+
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+
+/* A puzzle brought into a standard position, together with the transformation that got it there. Puzzles that
+ * only differ by a validity preserving symmetry - transposition, swapping bands or stacks, swapping rows within a
+ * band or columns within a stack, relabeling the digits - mostly end up with the same canonical grid, so a
+ * solution found for one of them can be mapped back onto all the others.
+ *
+ * A true minimal form would have to try all 2 * 6^8 row and column arrangements of a 9x9 grid. Instead the rows
+ * and columns are sorted by keys that do not change under any of these symmetries: the number of clues in the
+ * line, refined a few times by the keys of the crossing lines and by how often the digits of the clues occur in
+ * the puzzle. Bands and stacks are sorted by the keys of their rows and columns, both orientations are tried and
+ * the smaller grid wins, and the digits are numbered in the order they first appear. That is O(N^2) and a few
+ * microseconds. Rows with equal keys keep their order, so two equivalent puzzles with such ties may still get
+ * different forms; that only costs a cache miss, the mapping back is always exact because it uses the
+ * transformation that was actually applied. */
+public final class CanonicalForm {
+
+    private static final int REFINEMENTS = 3;
+
+    private final int n;
+    private final boolean transposed;
+    // rows[i] is the row of the (transposed) puzzle that ends up as row i of the canonical grid, the same for columns
+    private final int[] rows;
+    private final int[] columns;
+    // originalDigits[d] is the digit of the puzzle that became canonical digit d
+    private final int[] originalDigits;
+    private final int[][] grid;
+    private final String key;
+
+    private CanonicalForm(int[][] puzzle, boolean transposed, int[] rows, int[] columns) {
+        this.n = puzzle.length;
+        this.transposed = transposed;
+        this.rows = rows;
+        this.columns = columns;
+        var digits = new int[n + 1];
+        this.originalDigits = new int[n + 1];
+        this.grid = new int[n][n];
+        int next = 1;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int d = cell(puzzle, transposed, rows[i], columns[j]);
+                if (d != 0 && digits[d] == 0) {
+                    digits[d] = next;
+                    originalDigits[next] = d;
+                    next++;
+                }
+                grid[i][j] = digits[d];
+            }
+        }
+        // the digits without a clue are numbered in their natural order, any numbering would be correct
+        for (int d = 1; d <= n; d++) {
+            if (digits[d] == 0) {
+                digits[d] = next;
+                originalDigits[next] = d;
+                next++;
+            }
+        }
+        var chars = new char[n * n];
+        for (int i = 0; i < n * n; i++) {
+            chars[i] = (char) grid[i / n][i % n];
+        }
+        this.key = new String(chars);
+    }
+
+    public static CanonicalForm of(int[][] puzzle) {
+        var straight = arrange(puzzle, false);
+        var transposed = arrange(puzzle, true);
+        return straight.key.compareTo(transposed.key) <= 0 ? straight : transposed;
+    }
+
+    /* The puzzle in its canonical position, to be solved instead of the original. */
+    public int[][] grid() {
+        return grid;
+    }
+
+    /* Identifies the canonical grid; equal keys mean equal canonical grids. */
+    public String key() {
+        return key;
+    }
+
+    /* Maps a grid in the canonical position, usually a solution of grid(), back onto the original puzzle. */
+    public int[][] toOriginal(int[][] canonical) {
+        var original = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int value = originalDigits[canonical[i][j]];
+                if (transposed) {
+                    original[columns[j]][rows[i]] = value;
+                } else {
+                    original[rows[i]][columns[j]] = value;
+                }
+            }
+        }
+        return original;
+    }
+
+    private static CanonicalForm arrange(int[][] puzzle, boolean transposed) {
+        int n = puzzle.length;
+        int size = SudokuGrid.boxSize(n);
+        var digitClues = new int[n + 1];
+        var rowKeys = new long[n];
+        var columnKeys = new long[n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int d = cell(puzzle, transposed, r, c);
+                if (d != 0) {
+                    digitClues[d]++;
+                    rowKeys[r]++;
+                    columnKeys[c]++;
+                }
+            }
+        }
+        // refine the keys: a line is described by the keys of the lines its clues cross and by how often the digits
+        // of its clues occur in the whole puzzle. Sums of mixed values do not depend on the order of the clues.
+        for (int round = 0; round < REFINEMENTS; round++) {
+            var nextRowKeys = new long[n];
+            var nextColumnKeys = new long[n];
+            for (int r = 0; r < n; r++) {
+                for (int c = 0; c < n; c++) {
+                    int d = cell(puzzle, transposed, r, c);
+                    if (d != 0) {
+                        nextRowKeys[r] += mix(columnKeys[c] * 31 + digitClues[d]);
+                        nextColumnKeys[c] += mix(rowKeys[r] * 31 + digitClues[d]);
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                rowKeys[i] = mix(rowKeys[i]) ^ nextRowKeys[i];
+                columnKeys[i] = mix(columnKeys[i]) ^ nextColumnKeys[i];
+            }
+        }
+        return new CanonicalForm(puzzle, transposed, order(rowKeys, size), order(columnKeys, size));
+    }
+
+    private static long mix(long x) {
+        x *= 0x9E3779B97F4A7C15L;
+        return x ^ (x >>> 29);
+    }
+
+    // the lines of every band sorted by descending key, then the bands sorted by their sorted keys. Insertion
+    // sorts: there are only a handful of lines per band and bands per grid, and they keep ties in their order.
+    private static int[] order(long[] keys, int size) {
+        var bands = new int[size][size];
+        for (int b = 0; b < size; b++) {
+            for (int i = 0; i < size; i++) {
+                int line = b * size + i;
+                int j = i;
+                while (j > 0 && keys[bands[b][j - 1]] < keys[line]) {
+                    bands[b][j] = bands[b][j - 1];
+                    j--;
+                }
+                bands[b][j] = line;
+            }
+        }
+        for (int i = 1; i < size; i++) {
+            int[] band = bands[i];
+            int j = i;
+            while (j > 0 && compareBands(keys, bands[j - 1], band) > 0) {
+                bands[j] = bands[j - 1];
+                j--;
+            }
+            bands[j] = band;
+        }
+        var order = new int[size * size];
+        for (int b = 0; b < size; b++) {
+            System.arraycopy(bands[b], 0, order, b * size, size);
+        }
+        return order;
+    }
+
+    // bands with larger keys come first
+    private static int compareBands(long[] keys, int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int compare = Long.compare(keys[b[i]], keys[a[i]]);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return 0;
+    }
+
+    private static int cell(int[][] puzzle, boolean transposed, int r, int c) {
+        return transposed ? puzzle[c][r] : puzzle[r][c];
+    }
+}
@@ -0,0 +1,74 @@
+package org.dreamabout.sw.game.sudoku.cache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/* The solutions of canonical puzzles, keyed by CanonicalForm.key(), holding at most maxEntries puzzles. When it
+ * is full the least recently used puzzle is evicted. The solutions are stored in the canonical position, one
+ * byte per cell, so a 9x9 entry is about a hundred bytes.
+ *
+ * The cache is thread safe and meant to be shared by all the CachingEngines of a process; the lookups are short,
+ * so a single lock is enough. */
+public class SolutionCache {
+
+    /* The solutions of a canonical puzzle. complete is true if the search was not stopped by a solution limit,
+     * so the list holds every solution there is; otherwise it only answers requests for at most that many. */
+    record Entry(List<byte[]> solutions, boolean complete) {
+
+        boolean answers(int maxSolutions) {
+            return complete || solutions.size() >= maxSolutions;
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public SolutionCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1, was: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        // access order, so the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > SolutionCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /* The entry for the canonical puzzle if it can answer a search for maxSolutions solutions, otherwise null. */
+    synchronized Entry get(String key, int maxSolutions) {
+        var entry = entries.get(key);
+        if (entry != null && entry.answers(maxSolutions)) {
+            hits++;
+            return entry;
+        }
+        misses++;
+        return null;
+    }
+
+    synchronized void put(String key, Entry entry) {
+        var previous = entries.get(key);
+        // a complete entry, or one with more solutions, is never replaced by one that answers less
+        if (previous == null || entry.complete() || (!previous.complete() && entry.solutions().size() > previous.solutions().size())) {
+            entries.put(key, entry);
+        }
+    }
+
+    public synchronized CacheStatistics statistics() {
+        return new CacheStatistics(hits, misses, evictions, entries.size(), maxEntries);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
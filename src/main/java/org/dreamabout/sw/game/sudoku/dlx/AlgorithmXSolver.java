@@ -1,133 +1,154 @@
 package org.dreamabout.sw.game.sudoku.dlx;
 
-import lombok.RequiredArgsConstructor;
-
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.dreamabout.sw.game.sudoku.dlx.Constant.N;
-import static org.dreamabout.sw.game.sudoku.dlx.Constant.SIZE;
-
-@RequiredArgsConstructor
 public class AlgorithmXSolver {
 
     /* The grid contains all the numbers in the Sudoku puzzle.  Numbers which have
      * not yet been revealed are stored as 0. */
     private final int[][] grid;
 
+    // the size of the grid is taken from the grid itself: n rows, columns, blocks and digits, and blocks of size x size
+    private final int n;
+    private final int size;
+
+    public AlgorithmXSolver(int[][] grid) {
+        this.grid = grid;
+        this.n = grid.length;
+        this.size = SudokuGrid.boxSize(n);
+    }
 
     private ColumnNode root = null; // this is the starting node of the linked list
     private List<Node> solution = new ArrayList<>(); // a raw Array List for dynamically storing the solutions. It slows things
     // down a bit, but this how I started and ran out of time before I could come up with a more efficient way to do it.
-
-    // the run method. We pass the Grid[][] as input
+    private final List<int[][]> solutions = new ArrayList<>(); // every solution found so far, copied out of the linked list
+    private int maxSolutions;
+
+    // what the last solve did: the time of the first two phases and the search counters. The counters are plain
+    // fields updated once per search node or per cover/uncover, so counting costs next to nothing.
+    private long buildNanos;
+    private long linkNanos;
+    private long nodes;
+    private long linkUpdates;
+    private int maxDepth;
+    private long backtracks;
+
+    // the run method. We pass the Grid[][] as input, and the first solution found is mapped onto it
     public void run() {
-        byte[][] matrix = createMatrix(grid); // create the sparse matrix. We use the type byte to speed things up. I tried using
-        // using all the primitive types, expecting the same results in terms
-        // of speed; the only performance boost should have been in terms of space.
-        // Yet, there was a marked difference in the running times. Hence, I used byte[][] whenever possible.
-        createDoubleLinkedLists(matrix);   // create the circular doubly-linked toroidal list
-        search(0); // start the Dancing Links process of searching and covering and uncovering recursively
+        var result = solve(1);
+        if (result.isSolved()) {
+            int[][] solved = result.solution();
+            for (int r = 0; r < n; r++) {
+                System.arraycopy(solved[r], 0, grid[r], 0, n);
+            }
+        }
     }
 
-    // data structures
+    // searches for at most maxSolutions solutions, without touching the grid. 1 stops at the first solution,
+    // 2 is enough to tell whether the solution is unique
+    public SolveResult solve(int maxSolutions) {
+        if (maxSolutions < 1) {
+            throw new IllegalArgumentException("maxSolutions must be at least 1, was: " + maxSolutions);
+        }
+        var event = new SolveEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        int[][] matrix = createMatrix(grid); // create the sparse matrix, only the four 1s of every row are stored
+        long matrixTime = System.nanoTime();
+        createDoubleLinkedLists(matrix);   // create the circular doubly-linked toroidal list
+        buildNanos = matrixTime - startTime;
+        linkNanos = System.nanoTime() - matrixTime;
+        var result = searchLinkedLists(maxSolutions);
+        event.commit(EngineType.DLX_OBJECT.name(), grid, result);
+        return result;
+    }
 
+    // start the Dancing Links process of searching and covering and uncovering recursively, on the list built by
+    // createDoubleLinkedLists. The three phases are package-private so that they can be benchmarked one by one.
+    SolveResult searchLinkedLists(int maxSolutions) {
+        this.maxSolutions = maxSolutions;
+        solutions.clear();
+        nodes = 0;
+        linkUpdates = 0;
+        maxDepth = 0;
+        backtracks = 0;
+        long startTime = System.nanoTime();
+        search(0);
+        var statistics = new SearchStatistics(buildNanos, linkNanos, System.nanoTime() - startTime,
+                nodes, linkUpdates, maxDepth, backtracks);
+        return SolveResult.of(solutions, maxSolutions, SolveResult.Exhaustion.NONE, statistics);
+    }
 
-    // create a sparse matrix for Grid
-    private byte[][] createMatrix(int[][] initialMatrix) {
-        int[][] clues = null; // stores the numbers that are already given on the board i.e. the 'clues'
-        var cluesList = new ArrayList<int[]>(); // the list used to get the clues. Because we use a raw ArrayList, we later have to cast to int[] before storing in clues
-        int counter = 0;
-        for (int r = 0; r < N; r++) // iterates over the rows of Grid
+    // create a sparse matrix for Grid.
+    // The rows of our matrix represent all the possibilities, whereas the columns represent the constraints.
+    // Hence, there are up to N^3 rows (N rows * N columns * N numbers), and N^2 * 4 columns (N rows * N columns * 4 constraints).
+    // A dense N^3 x 4N^2 matrix would be ~39 MB for a 25x25 grid while every row only has four 1s, so only the rows
+    // that are still possible are created, each one as the indexes of its four columns.
+    int[][] createMatrix(int[][] initialMatrix) {
+        // the digits already used in every row, column and block, as bit masks, so that checking a candidate
+        // against the clues is O(1) instead of a scan over all the clues
+        long[] rowUsed = new long[n];
+        long[] colUsed = new long[n];
+        long[] blockUsed = new long[n];
+        for (int r = 0; r < n; r++) // iterates over the rows of Grid
         {
-            for (int c = 0; c < N; c++) // iterates over the columns of Grid
+            for (int c = 0; c < n; c++) // iterates over the columns of Grid
             {
                 if (initialMatrix[r][c] > 0) // if the number on the Grid is != 0 (the number is a clue and not a blank space to solved for), then store it
                 {
-                    cluesList.add(new int[]{initialMatrix[r][c], r, c}); // store the number, the row number and the column number
-                    counter++;
+                    long bit = 1L << (initialMatrix[r][c] - 1);
+                    rowUsed[r] |= bit;
+                    colUsed[c] |= bit;
+                    blockUsed[blockIndex(r, c)] |= bit;
                 }
             }
         }
-        clues = new int[counter][]; // store the clues once we've gotten them
-        for (int i = 0; i < counter; i++) {
-            clues[i] = cluesList.get(i);
-        }
-
-        // Now, we build our sparse matrix
-        byte[][] matrix = new byte[N * N * N][4 * N * N];
-        // The rows of our matrix represent all the possibilities, whereas the columns represent the constraints.
-        // Hence, there are N^3 rows (N rows * N columns * N numbers), and N^2 * 4 columns (N rows * N columns * 4 constraints)
 
+        var matrix = new ArrayList<int[]>();
         // iterate over all the possible digits d
-        for (int d = 0; d < N; d++) {
+        for (int d = 0; d < n; d++) {
             // iterate over all the possible rows r
-            for (int r = 0; r < N; r++) {
+            for (int r = 0; r < n; r++) {
                 // iterator over all the possible columns c
-                for (int c = 0; c < N; c++) {
-                    mapSparseMatrix(d, r, c, matrix, clues); // map the sparse matrix
+                for (int c = 0; c < n; c++) {
+                    if (!isCellFilled(d, r, c, initialMatrix, rowUsed, colUsed, blockUsed)) // if the cell is not already filled
+                    {
+                        matrix.add(mapSparseRow(d, r, c)); // map the sparse matrix
+                    }
                 }
             }
         }
-        return matrix;
+        return matrix.toArray(new int[0][]);
     }
 
-    private void mapSparseMatrix(int d, int r, int c, byte[][] matrix, int[][] clues) {
-        if (!isCellFilled(d, r, c, clues)) // if the cell is not already filled
-        {
-            // this idea for this way of mapping the sparse matrix is taken from the Python implementation: https://code.google.com/p/narorumo/wiki/SudokuDLX
-            int rowIndex = c + (N * r) + (N * N * d);
-            // there are four 1s in each row, one for each constraint
-            int blockIndex = ((c / SIZE) + ((r / SIZE) * SIZE));
-            int colIndexRow = 3 * N * d + r;
-            int colIndexCol = 3 * N * d + N + c;
-            int colIndexBlock = 3 * N * d + 2 * N + blockIndex;
-            int colIndexSimple = 3 * N * N + (c + N * r);
-            // fill in the 1's
-            matrix[rowIndex][colIndexRow] = 1;
-            matrix[rowIndex][colIndexCol] = 1;
-            matrix[rowIndex][colIndexBlock] = 1;
-            matrix[rowIndex][colIndexSimple] = 1;
-        }
+    private int[] mapSparseRow(int d, int r, int c) {
+        // this idea for this way of mapping the sparse matrix is taken from the Python implementation: https://code.google.com/p/narorumo/wiki/SudokuDLX
+        // there are four 1s in each row, one for each constraint
+        int colIndexRow = 3 * n * d + r;
+        int colIndexCol = 3 * n * d + n + c;
+        int colIndexBlock = 3 * n * d + 2 * n + blockIndex(r, c);
+        int colIndexSimple = 3 * n * n + (c + n * r);
+        return new int[]{colIndexRow, colIndexCol, colIndexBlock, colIndexSimple};
     }
 
+    private int blockIndex(int r, int c) {
+        return (c / size) + ((r / size) * size);
+    }
 
     // Check if the cell to be filled is already filled with a digit.
     // The idea for this is credited to Alex Rudnick as cited above
-    // Meeting pre-existing conditions to check if a cell has already been filled
-    private boolean isCellFilled(int digit, int row, int col, int[][] prefill) {
-        if (prefill != null) {
-            for (int[] ints : prefill) {
-                if (matchesExistingConditionsWithoutExactCellMatch(digit, row, col, ints)
-                        || matchesExistingConditionsInSameBlockButNotSameCell(digit, row, col, ints)) {
-                    return true;
-                }
-            }
+    // Meeting pre-existing conditions to check if a cell has already been filled: the cell holds another clue,
+    // or the digit is already a clue somewhere else in the same row, column or block
+    private boolean isCellFilled(int digit, int row, int col, int[][] prefill,
+                                 long[] rowUsed, long[] colUsed, long[] blockUsed) {
+        if (prefill[row][col] > 0) {
+            return prefill[row][col] != digit + 1;
         }
-        return false;
-    }
-
-    private boolean matchesExistingConditionsWithoutExactCellMatch(int digit, int row, int col, int[] ints) {
-        int d = ints[0] - 1;
-        int r = ints[1];
-        int c = ints[2];
-        return (d != digit && row == r && col == c) ||
-                ((d == digit) && (row == r || col == c) && !(row == r && col == c));
-    }
-
-    private boolean matchesExistingConditionsInSameBlockButNotSameCell(int digit, int row, int col, int[] ints) {
-        int d = ints[0] - 1;
-        int r = ints[1];
-        int c = ints[2];
-        int blockStartIndexRow = (r / SIZE) * SIZE;
-        int blockEndIndexRow = blockStartIndexRow + SIZE;
-        int blockStartIndexCol = (c / SIZE) * SIZE;
-        int blockEndIndexCol = blockStartIndexCol + SIZE;
-        return d == digit && row > blockStartIndexRow && row < blockEndIndexRow
-                && col > blockStartIndexCol && col < blockEndIndexCol && row != r && col != c;
+        long bit = 1L << digit;
+        return ((rowUsed[row] | colUsed[col] | blockUsed[blockIndex(row, col)]) & bit) != 0;
     }
 
-
     // the method to convert the sparse matrix Exact Cover problem to a doubly-linked list, which will allow us to later
     // perform our Dancing Links magic.
     // Given that we have 4 constraints for Sudoku, I created a new class ColumnID that is a property of all columns.
@@ -136,40 +157,34 @@ public class AlgorithmXSolver {
     // the first constraint is row constraint, the second is col, the third is block, and the fourth is cell.
     // Every constraint contains N^2 columns for every cell
     // The idea for this is taken from Jonathan Chu's explanation (cited above)
-    private void createDoubleLinkedLists(byte[][] matrix) {
+    void createDoubleLinkedLists(int[][] matrix) {
         root = new ColumnNode(); // the root is used as an entry-way to the linked list i.e. we access the list through the root
-        // create the column heads
-        createColumnHeads(root, matrix);
+        // create the column heads, kept in an array as well so that a row can go straight to its columns
+        ColumnNode[] heads = createColumnHeads(root, 4 * n * n);
 
-        // Once all the ColumnHeads are set, we iterate over the entire matrix
-        // Iterate over all the rows
-        for (byte[] bytes : matrix) {
-            // iterator over all the columns
-            var curColumn = (ColumnNode) root.right;
+        // Once all the ColumnHeads are set, we iterate over the rows of the sparse matrix
+        for (int[] row : matrix) {
             Node lastCreatedElement = null;
             Node firstElement = null;
-            for (byte aByte : bytes) {
-                if (aByte == 1)  // i.e. if the sparse matrix element has a 1 i.e. there is a clue here i.e. we were given this value in the Grid
-                {
-                    // create a new data element and link it
-                    Node colElement = curColumn;
-                    while (colElement.down != null) {
-                        colElement = colElement.down;
-                    }
-                    colElement.down = new Node();
-                    if (firstElement == null) {
-                        firstElement = colElement.down;
-                    }
-                    colElement.down.up = colElement;
-                    colElement.down.left = lastCreatedElement;
-                    colElement.down.head = curColumn;
-                    if (lastCreatedElement != null) {
-                        colElement.down.left.right = colElement.down;
-                    }
-                    lastCreatedElement = colElement.down;
-                    curColumn.size++;
+            for (int col : row) {
+                // create a new data element and link it at the bottom of its column. The column head's up link
+                // always points to the last element, so there is no need to walk down the column.
+                ColumnNode curColumn = heads[col];
+                Node colElement = new Node();
+                colElement.head = curColumn;
+                colElement.up = curColumn.up;
+                colElement.down = curColumn;
+                curColumn.up.down = colElement;
+                curColumn.up = colElement;
+                curColumn.size++;
+                if (firstElement == null) {
+                    firstElement = colElement;
                 }
-                curColumn = (ColumnNode) curColumn.right;
+                colElement.left = lastCreatedElement;
+                if (lastCreatedElement != null) {
+                    lastCreatedElement.right = colElement;
+                }
+                lastCreatedElement = colElement;
             }
             // link the first and the last element, again making it circular
             if (lastCreatedElement != null) {
@@ -177,28 +192,12 @@ public class AlgorithmXSolver {
                 firstElement.left = lastCreatedElement;
             }
         }
-
-        linkTheLastColumnElements(matrix);
     }
 
-    private void linkTheLastColumnElements(byte[][] matrix) {
-        var curColumn = (ColumnNode) root.right;
-        // link the last column elements with the corresponding columnHeads
-        for (int i = 0; i < matrix[0].length; i++) {
-            Node colElement = curColumn;
-            while (colElement.down != null) {
-                colElement = colElement.down;
-            }
-            colElement.down = curColumn;
-            curColumn.up = colElement;
-            curColumn = (ColumnNode) curColumn.right;
-        }
-    }
-
-    private void createColumnHeads(ColumnNode root, byte[][] matrix) {
+    private ColumnNode[] createColumnHeads(ColumnNode root, int columns) {
+        var heads = new ColumnNode[columns];
         var curColumn = root;
-        for (int col = 0; col < matrix[0].length; col++) // getting the column heads from the sparse matrix and filling in the information about the
-        // constraints. We iterate for all the column heads, thus going through all the items in the first row of the sparse matrix
+        for (int col = 0; col < columns; col++) // filling in the information about the constraints for all the column heads
         {
             // We create the ColumnID that will store the information. We will later map this ID to the current curColumn
             curColumn.right = new ColumnNode();
@@ -206,47 +205,58 @@ public class AlgorithmXSolver {
             curColumn = (ColumnNode) curColumn.right;
             curColumn.info = createColumnId(col); // the information about the column is set to the new column
             curColumn.head = curColumn;
+            curColumn.up = curColumn; // an empty column is a circle of just its head
+            curColumn.down = curColumn;
+            heads[col] = curColumn;
         }
         curColumn.right = root; // making the list circular i.e. the right-most ColumnHead is linked to the root
         root.left = curColumn;
+        return heads;
     }
 
     private ColumnId createColumnId(int col) {
         ColumnId columnId = new ColumnId();
-        if (col < 3 * N * N) {
+        if (col < 3 * n * n) {
             // identifying the digit
-            int digit = (col / (3 * N)) + 1;
+            int digit = (col / (3 * n)) + 1;
             columnId.number = digit;
             // is it for a row, column or block?
-            int index = col - (digit - 1) * 3 * N;
-            if (index < N) {
+            int index = col - (digit - 1) * 3 * n;
+            if (index < n) {
                 columnId.constraint = 0; // we're in the row constraint
                 columnId.position = index;
-            } else if (index < 2 * N) {
+            } else if (index < 2 * n) {
                 columnId.constraint = 1; // we're in the column constraint
-                columnId.position = index - N;
+                columnId.position = index - n;
             } else {
                 columnId.constraint = 2; // we're in the block constraint
-                columnId.position = index - 2 * N;
+                columnId.position = index - 2 * n;
             }
         } else {
             columnId.constraint = 3; // we're in the cell constraint
-            columnId.position = col - 3 * N * N;
+            columnId.position = col - 3 * n * n;
         }
         return columnId;
     }
 
     // the searching algorithm. Pseudo-code from Jonathan Chu's paper (cited above).
-    private void search(int k) {
+    // Returns true once maxSolutions solutions have been found, which unwinds the recursion without
+    // trying any further rows.
+    private boolean search(int k) {
+        nodes++;
+        if (k > maxDepth) {
+            maxDepth = k;
+        }
         if (root.right == root) // if we've run out of columns, we've solved the exact cover problem!
         {
-            mapSolvedToGrid(); // map the solved linked list to the grid
-            return;
+            solutions.add(mapSolvedToGrid(k)); // map the solved linked list to a grid
+            return solutions.size() >= maxSolutions;
         }
         ColumnNode c = choose(); // we choose a column to cover
         cover(c);
+        boolean stop = false;
         Node r = c.down;
-        while (r != c) {
+        while (r != c && !stop) {
             if (k < solution.size()) {
                 solution.remove(k); // if we had to enter this loop again
             }
@@ -257,7 +267,7 @@ public class AlgorithmXSolver {
                 cover(j.head);
                 j = j.right;
             }
-            search(k + 1); //recursively search
+            stop = search(k + 1); //recursively search
 
             Node r2 = solution.get(k);
             Node j2 = r2.left;
@@ -265,15 +275,20 @@ public class AlgorithmXSolver {
                 uncover(j2.head);
                 j2 = j2.left;
             }
+            if (!stop) {
+                backtracks++; // this row did not lead to the solutions we're looking for
+            }
             r = r.down;
         }
         uncover(c);
+        return stop;
     }
 
-    // this allows us to map the solved linked list to the Grid
-    private void mapSolvedToGrid() {
-        int[] result = new int[N * N];
-        for (Node node : solution) {
+    // this allows us to map the solved linked list to a new grid. Only the first k entries of the solution list
+    // belong to the current branch, the rest are left over from deeper branches we backtracked out of.
+    private int[][] mapSolvedToGrid(int k) {
+        int[] result = new int[n * n];
+        for (Node node : solution.subList(0, k)) {
             // for the first step, we pull all the values of the solved Sudoku board from the linked list to an array result[] in order
             int number = -1; // initialize number and cell number to be a value that can't occur
             int cellNo = -1;
@@ -288,16 +303,18 @@ public class AlgorithmXSolver {
             } while (node != next);
             result[cellNo] = number; // feed values into result[]
         }
-        // for the second step, we feed all the values of the array result[] (in order) to the Grid
+        // for the second step, we feed all the values of the array result[] (in order) to the new grid
+        int[][] solved = new int[n][n];
         int resultCounter = 0;
-        for (int r = 0; r < N; r++) // iterates for the rows
+        for (int r = 0; r < n; r++) // iterates for the rows
         {
-            for (int c = 0; c < N; c++) // iterates for the columns
+            for (int c = 0; c < n; c++) // iterates for the columns
             {
-                grid[r][c] = result[resultCounter];
+                solved[r][c] = result[resultCounter];
                 resultCounter++;
             }
         }
+        return solved;
     }
 
 
@@ -324,6 +341,7 @@ public class AlgorithmXSolver {
         column.left.right = column.right;
 
         // We also have to do this covering for all the rows in the column
+        int updates = 1;
         Node curRow = column.down;
         while (curRow != column) // because it's circular!
         {
@@ -333,13 +351,16 @@ public class AlgorithmXSolver {
                 curNode.up.down = curNode.down;
                 curNode.head.size--;
                 curNode = curNode.right;
+                updates++;
             }
             curRow = curRow.down;
         }
+        linkUpdates += updates;
     }
 
     // uncovers the column i.e. adds back all the nodes of the column to the linked list
     private void uncover(Node column) {
+        int updates = 1;
         Node curRow = column.up;
         while (curRow != column) // do this for all the nodes of the column to be uncovered first, and then reinsert the columnHead
         {
@@ -349,9 +370,11 @@ public class AlgorithmXSolver {
                 curNode.down.up = curNode; // reinserts node into linked list
                 curNode.up.down = curNode;
                 curNode = curNode.left;
+                updates++;
             }
             curRow = curRow.up;
         }
+        linkUpdates += updates;
         column.right.left = column; // reinserts column head
         column.left.right = column;
     }
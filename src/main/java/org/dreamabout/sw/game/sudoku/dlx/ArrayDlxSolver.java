@@ -0,0 +1,141 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/* Dancing Links engine on the flat int[] links of an ExactCoverSolver. A puzzle is encoded as the SudokuCover
+ * problem of its size with the rows of its clues selected in advance, and the rows of every solution are decoded
+ * back into a grid; the search itself is the generic one, so every improvement to ExactCoverSolver applies to
+ * Sudoku and to any other exact cover problem alike. The exact cover matrix is the same one AlgorithmXSolver
+ * builds, so both engines can be compared on the same inputs.
+ *
+ * The solver is meant to be reused: the clue rows are released after every search, which leaves the links exactly
+ * as they were for the next puzzle. The size of the grid is taken from every puzzle; a new ExactCoverSolver is only
+ * created when it changes. Instances are not thread safe, use one solver per thread.
+ *
+ * Like ExactCoverSolver it can stop on a SearchBudget with the links restored, enumerate all the solutions of a
+ * puzzle lazily with solutions() and count them with count() without building a single grid. */
+public class ArrayDlxSolver implements SolverEngine {
+
+    private ExactCoverSolver solver = new ExactCoverSolver(SudokuCover.forSize(Constant.SIZE));
+    private int n = Constant.N;
+
+    /* Solves the puzzle in place: the empty cells of the grid are filled in with the first solution found.
+     * Returns false, leaving the grid untouched, if the clues contradict each other or there is no solution. */
+    public boolean solve(int[][] grid) {
+        var result = solve(grid, 1);
+        if (result.isSolved()) {
+            int[][] solved = result.solution();
+            for (int r = 0; r < n; r++) {
+                System.arraycopy(solved[r], 0, grid[r], 0, n);
+            }
+        }
+        return result.isSolved();
+    }
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions) {
+        return solve(grid.getGrid(), maxSolutions);
+    }
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions, SearchBudget budget) {
+        return solve(grid.getGrid(), maxSolutions, budget);
+    }
+
+    /* Searches for at most maxSolutions solutions of the puzzle without modifying the grid. 1 stops at the
+     * first solution, 2 is enough to tell whether the solution is unique. */
+    public SolveResult solve(int[][] grid, int maxSolutions) {
+        return solve(grid, maxSolutions, SearchBudget.UNLIMITED);
+    }
+
+    /* Like solve(grid, maxSolutions), but stops early once the budget is exhausted. The result then holds the
+     * solutions found so far and which limit was hit. */
+    public SolveResult solve(int[][] grid, int maxSolutions, SearchBudget budget) {
+        var event = new SolveEvent();
+        event.begin();
+        var cover = solverFor(grid).solve(SudokuCover.clueRows(grid), maxSolutions, budget);
+        var solutions = new ArrayList<int[][]>(cover.solutionCount());
+        for (int[] rows : cover.solutions()) {
+            solutions.add(SudokuCover.toGrid(rows, n));
+        }
+        var result = SolveResult.of(solutions, maxSolutions, cover.exhaustion(), cover.statistics());
+        event.commit(EngineType.DLX_ARRAY.name(), grid, result);
+        return result;
+    }
+
+    /* Enumerates every solution of the puzzle, in the order of the search, without modifying the grid. The search
+     * only advances when the next solution is asked for and holds nothing but its current path, so any number of
+     * solutions can be processed in constant memory. The solver belongs to the iterator until it is exhausted or
+     * closed; solving anything else with the same solver closes it. */
+    public SolutionIterator solutions(int[][] grid, SearchBudget budget) {
+        var rows = solverFor(grid).solutions(SudokuCover.clueRows(grid), budget);
+        return new SolutionIterator(rows, n);
+    }
+
+    public SolutionIterator solutions(int[][] grid) {
+        return solutions(grid, SearchBudget.UNLIMITED);
+    }
+
+    /* The solutions as a sequential Stream; closing the stream closes the enumeration. */
+    public Stream<int[][]> stream(int[][] grid) {
+        var iterator = solutions(grid);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /* Counts the solutions of the puzzle without building any of them. */
+    public SolutionCount count(int[][] grid, SearchBudget budget) {
+        return solverFor(grid).count(SudokuCover.clueRows(grid), budget);
+    }
+
+    public SolutionCount count(int[][] grid) {
+        return count(grid, SearchBudget.UNLIMITED);
+    }
+
+    // the solver for the size of the grid; the links are only copied again when the size changes
+    ExactCoverSolver solverFor(int[][] grid) {
+        if (grid.length != n) {
+            solver = new ExactCoverSolver(SudokuCover.forSize(SudokuGrid.boxSize(grid.length)));
+            n = grid.length;
+        }
+        return solver;
+    }
+
+    /* The solutions of one puzzle, found one at a time. exhaustion() tells whether the enumeration ended because
+     * the budget ran out rather than because there are no more solutions. */
+    public static final class SolutionIterator implements Iterator<int[][]>, AutoCloseable {
+
+        private final ExactCoverSolver.SolutionIterator rows;
+        private final int n;
+
+        private SolutionIterator(ExactCoverSolver.SolutionIterator rows, int n) {
+            this.rows = rows;
+            this.n = n;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public int[][] next() {
+            return SudokuCover.toGrid(rows.next(), n);
+        }
+
+        public SolveResult.Exhaustion exhaustion() {
+            return rows.exhaustion();
+        }
+
+        /* Stops the enumeration and restores the links, so the solver can be used again. */
+        @Override
+        public void close() {
+            rows.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+/* Lets another thread abandon a running search. The search polls the token every few thousand nodes, so it
+ * returns shortly after cancel() with the solutions found so far. A token stays cancelled; use a new one for
+ * every request. */
+public class CancellationToken {
+
+    /* A token that can never be cancelled, for searches that run to the end. */
+    public static final CancellationToken NONE = new CancellationToken() {
+        @Override
+        public void cancel() {
+            throw new UnsupportedOperationException("CancellationToken.NONE cannot be cancelled");
+        }
+    };
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
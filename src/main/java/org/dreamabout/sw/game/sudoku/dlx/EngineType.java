@@ -0,0 +1,37 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.dreamabout.sw.game.sudoku.bitboard.BitboardSolver;
+
+import java.util.function.Supplier;
+
+/* The solver engines that can be selected from the command line. */
+@RequiredArgsConstructor
+public enum EngineType {
+
+    /* The original engine: the toroidal list is built out of Node and ColumnNode objects, for every puzzle. */
+    DLX_OBJECT(ObjectDlxEngine::new, false),
+
+    /* The same Dancing Links search, with all the links kept in parallel int[] arrays. */
+    DLX_ARRAY(ArrayDlxSolver::new, true),
+
+    /* DLX_ARRAY with the first levels of the search tree split into tasks for the common ForkJoinPool. */
+    DLX_PARALLEL(ParallelDlxSolver::new, true),
+
+    /* Several DLX_ARRAY searches racing on virtual threads, each breaking the ties between columns differently. */
+    DLX_PORTFOLIO(PortfolioSolver::new, true),
+
+    /* Backtracking on row, column and block candidate bit masks, without any exact cover matrix. */
+    BITBOARD(BitboardSolver::new, false);
+
+    private final Supplier<SolverEngine> factory;
+    // whether the engine can stop in the middle of a search, see SolverEngine.solve(grid, maxSolutions, budget)
+    @Getter
+    private final boolean budgeted;
+
+    /* Creates a new engine of this type. Engines may be reused, but not shared between threads. */
+    public SolverEngine create() {
+        return factory.get();
+    }
+}
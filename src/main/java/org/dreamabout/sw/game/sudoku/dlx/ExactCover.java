@@ -0,0 +1,170 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import java.util.Arrays;
+
+/* An exact cover problem in the int[] layout searched by ExactCoverSolver: a set of columns and a set of rows, each
+ * row covering a few of the columns. A solution is a set of rows that covers every primary column exactly once and
+ * every secondary column at most once. Secondary columns are the optional constraints, like the diagonals of the
+ * N-queens problem, which may stay empty.
+ *
+ * The problem is described by sparse rows, the columns every row covers, and linked once into the toroidal list:
+ * index 0 is the root of the primary columns, 1..primary+secondary are the column heads, the next index is the
+ * root of the secondary columns and everything after that are the nodes of the rows. Only the primary heads are
+ * linked to the root, so the search never chooses a secondary column, but covering a secondary column still
+ * removes every other row that uses it. Rows and columns are numbered from 0 in the order they were added; the
+ * solutions are reported as these row numbers. The links are never modified, every ExactCoverSolver searches its
+ * own copy, so a problem can be shared between threads and solved any number of times. */
+public final class ExactCover {
+
+    static final int ROOT = 0;
+
+    final int primaryColumns;
+    final int secondaryColumns;
+    final int rows;
+
+    final int[] left;
+    final int[] right;
+    final int[] up;
+    final int[] down;
+    final int[] column;
+    final int[] columnSize;
+    // the row of every node, -1 for the roots and the column heads, and the first node of every row
+    final int[] rowOf;
+    final int[] firstNode;
+
+    private ExactCover(Builder builder) {
+        this.primaryColumns = builder.primaryColumns;
+        this.secondaryColumns = builder.secondaryColumns;
+        this.rows = builder.rows;
+
+        int heads = primaryColumns + secondaryColumns;
+        int secondaryRoot = heads + 1;
+        int capacity = secondaryRoot + 1 + builder.nodes;
+        left = new int[capacity];
+        right = new int[capacity];
+        up = new int[capacity];
+        down = new int[capacity];
+        column = new int[capacity];
+        columnSize = new int[heads + 1];
+        rowOf = new int[capacity];
+        firstNode = new int[rows];
+
+        for (int col = 0; col <= secondaryRoot; col++) {
+            up[col] = col;
+            down[col] = col;
+            column[col] = col;
+            rowOf[col] = -1;
+        }
+        // the primary heads form the horizontal list of the root, the secondary heads a list of their own
+        linkHeads(ROOT, 1, primaryColumns);
+        linkHeads(secondaryRoot, primaryColumns + 1, secondaryColumns);
+
+        int node = secondaryRoot + 1;
+        for (int row = 0; row < rows; row++) {
+            int first = node;
+            firstNode[row] = first;
+            for (int i = builder.rowStart[row]; i < builder.rowStart[row + 1]; i++) {
+                appendNode(node, 1 + builder.columns[i]);
+                rowOf[node] = row;
+                node++;
+            }
+            // link the row horizontally, closing the circle back to the first node
+            for (int j = first; j < node; j++) {
+                left[j] = j == first ? node - 1 : j - 1;
+                right[j] = j == node - 1 ? first : j + 1;
+            }
+        }
+    }
+
+    /* Starts a problem with the given number of columns. Columns 0..primaryColumns-1 are primary, the ones after
+     * them secondary. */
+    public static Builder builder(int primaryColumns, int secondaryColumns) {
+        return new Builder(primaryColumns, secondaryColumns);
+    }
+
+    public int primaryColumns() {
+        return primaryColumns;
+    }
+
+    public int secondaryColumns() {
+        return secondaryColumns;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    private void linkHeads(int root, int first, int count) {
+        int previous = root;
+        for (int col = first; col < first + count; col++) {
+            left[col] = previous;
+            right[previous] = col;
+            previous = col;
+        }
+        right[previous] = root;
+        left[root] = previous;
+    }
+
+    private void appendNode(int node, int col) {
+        column[node] = col;
+        // the column head's up link always points to the last node, so appending is O(1)
+        up[node] = up[col];
+        down[node] = col;
+        down[up[col]] = node;
+        up[col] = node;
+        columnSize[col]++;
+    }
+
+    /* Collects the rows of a problem. Every row must cover at least one column and no column twice. */
+    public static final class Builder {
+
+        private final int primaryColumns;
+        private final int secondaryColumns;
+        private int rows;
+        private int nodes;
+        // the columns of all the rows one after the other, row i is columns[rowStart[i]..rowStart[i+1]-1]
+        private int[] columns = new int[64];
+        private int[] rowStart = new int[17];
+
+        private Builder(int primaryColumns, int secondaryColumns) {
+            if (primaryColumns < 0 || secondaryColumns < 0) {
+                throw new IllegalArgumentException("Column counts must not be negative, were: %d and %d"
+                        .formatted(primaryColumns, secondaryColumns));
+            }
+            this.primaryColumns = primaryColumns;
+            this.secondaryColumns = secondaryColumns;
+        }
+
+        /* Adds a row covering the given columns and returns its number. */
+        public int addRow(int... rowColumns) {
+            if (rowColumns.length == 0) {
+                throw new IllegalArgumentException("A row must cover at least one column");
+            }
+            int columnCount = primaryColumns + secondaryColumns;
+            for (int i = 0; i < rowColumns.length; i++) {
+                if (rowColumns[i] < 0 || rowColumns[i] >= columnCount) {
+                    throw new IllegalArgumentException("Column %d out of range 0..%d".formatted(rowColumns[i], columnCount - 1));
+                }
+                for (int j = 0; j < i; j++) {
+                    if (rowColumns[j] == rowColumns[i]) {
+                        throw new IllegalArgumentException("Column %d appears twice in the same row".formatted(rowColumns[i]));
+                    }
+                }
+            }
+            if (nodes + rowColumns.length > columns.length) {
+                columns = Arrays.copyOf(columns, Math.max(2 * columns.length, nodes + rowColumns.length));
+            }
+            if (rows + 2 > rowStart.length) {
+                rowStart = Arrays.copyOf(rowStart, 2 * rowStart.length);
+            }
+            System.arraycopy(rowColumns, 0, columns, nodes, rowColumns.length);
+            nodes += rowColumns.length;
+            rowStart[++rows] = nodes;
+            return rows - 1;
+        }
+
+        public ExactCover build() {
+            return new ExactCover(this);
+        }
+    }
+}
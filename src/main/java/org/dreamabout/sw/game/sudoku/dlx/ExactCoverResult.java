@@ -0,0 +1,33 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import java.util.List;
+
+/* The outcome of an ExactCoverSolver search, like SolveResult but with every solution given as the numbers of its
+ * rows, in the order they were chosen: the selected rows first, then the rows found by the search. */
+public record ExactCoverResult(List<int[]> solutions, int solutionCount, boolean limitReached,
+                               SolveResult.Exhaustion exhaustion, SearchStatistics statistics) {
+
+    public ExactCoverResult {
+        solutions = List.copyOf(solutions);
+    }
+
+    public static ExactCoverResult of(List<int[]> solutions, int maxSolutions, SolveResult.Exhaustion exhaustion,
+                                      SearchStatistics statistics) {
+        boolean limitReached = solutions.size() >= maxSolutions;
+        return new ExactCoverResult(solutions, solutions.size(), limitReached,
+                limitReached ? SolveResult.Exhaustion.NONE : exhaustion, statistics);
+    }
+
+    public boolean isSolved() {
+        return solutionCount > 0;
+    }
+
+    public boolean isExhausted() {
+        return exhaustion != SolveResult.Exhaustion.NONE;
+    }
+
+    /* The rows of the first solution found, or null if there is none. */
+    public int[] solution() {
+        return solutions.isEmpty() ? null : solutions.getFirst();
+    }
+}
@@ -0,0 +1,589 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.dreamabout.sw.game.sudoku.dlx.ExactCover.ROOT;
+
+/* Dancing Links on the int[] layout of an ExactCover: the links are kept in parallel int[] arrays instead of
+ * Node/ColumnNode objects, so a node is just an index into left/right/up/down/column, and cover and uncover walk
+ * a handful of contiguous arrays instead of chasing references across the heap. This is the engine behind
+ * ArrayDlxSolver, which only encodes a Sudoku as an ExactCover and decodes the rows of its solutions; any other
+ * exact cover problem - tilings, N-queens, schedules - is searched by the same code.
+ *
+ * The solver starts from a copy of the links of the problem and is meant to be reused: the rows selected in
+ * advance, like the clues of a puzzle, are selected the same way search() selects a row, the rest is searched, and
+ * then they are released again, which leaves the links exactly as they were for the next search. Rows can also
+ * stay selected across searches: push() selects a row for every following search until pop() releases it again,
+ * so a problem that changes a row at a time, like a puzzle being filled in, costs a few link updates per change
+ * instead of a new copy of the links. Instances are not thread safe, use one solver per thread.
+ *
+ * The search is iterative: the rows chosen so far are the only stack it needs, so the depth of the search does
+ * not depend on the Java stack, and it can stop anywhere, when it runs out of its SearchBudget, with the links
+ * restored. It can also pause at every solution, which is how solutions() enumerates all the solutions lazily,
+ * one at a time, and count() counts them without building a single one.
+ *
+ * The primary columns are also kept in buckets by their size, a bitset of columns for every size, which cover and
+ * uncover update whenever they change a size. choose() then looks at the buckets from size 0 up instead of walking
+ * every active column, so it stops at once on a dead end or a forced row, and the column it picks is still the
+ * first one of the smallest size in header order, exactly as a full scan would pick it. */
+public class ExactCoverSolver {
+
+    private static final int[] NO_ROWS = {};
+
+    // the budget is checked every CHECK_INTERVAL nodes, reading the clock for every node would cost more than the node
+    static final int CHECK_INTERVAL = 4096;
+    // columns of this size or larger share the last bucket, which bounds the memory of the buckets for problems
+    // with very long columns; choose() only compares sizes when every column left is that long
+    static final int MAX_BUCKET = 64;
+
+    private final ExactCover problem;
+
+    // the links of every node and the column head it belongs to
+    private final int[] left;
+    final int[] right;
+    private final int[] up;
+    final int[] down;
+    final int[] column;
+    // number of nodes currently linked in every column, indexed by the column head
+    final int[] size;
+    // the node chosen at each depth of the search, selected rows first
+    final int[] solution;
+
+    // the active primary columns of every size: bit c of bucket s is set when column c has size s, or a size of at
+    // least lastBucket for the last bucket. bucketWords longs per bucket, and the number of columns in every bucket
+    private final int primaryColumns;
+    private final int lastBucket;
+    private final int bucketWords;
+    private final long[] buckets;
+    private final int[] bucketSize;
+
+    private final List<int[]> solutions = new ArrayList<>();
+    // the rows selected by push(), they are always solution[0..pushed-1]
+    private int pushed;
+    private int maxSolutions;
+    private int[] selectedRows = NO_ROWS;
+
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+    long startTime;
+    // the search nodes visited, and the limit that stopped the search if any
+    long nodes;
+    SolveResult.Exhaustion exhaustion = SolveResult.Exhaustion.NONE;
+    // the enumeration that currently owns the links, if any
+    private SolutionIterator enumeration;
+
+    public ExactCoverSolver(ExactCover problem) {
+        this.problem = problem;
+        left = problem.left.clone();
+        right = problem.right.clone();
+        up = problem.up.clone();
+        down = problem.down.clone();
+        column = problem.column.clone();
+        size = problem.columnSize.clone();
+        // a solution never has more rows than there are columns
+        solution = new int[problem.primaryColumns + problem.secondaryColumns];
+        primaryColumns = problem.primaryColumns;
+        // sizes only ever go down from the ones of the problem, so the largest of them is the last bucket needed
+        int maxSize = 0;
+        for (int c = 1; c <= primaryColumns; c++) {
+            maxSize = Math.max(maxSize, size[c]);
+        }
+        lastBucket = Math.min(maxSize, MAX_BUCKET);
+        bucketWords = (primaryColumns >>> 6) + 1;
+        buckets = new long[(lastBucket + 1) * bucketWords];
+        bucketSize = new int[lastBucket + 1];
+        for (int c = 1; c <= primaryColumns; c++) {
+            enterBucket(c, bucketOf(size[c]));
+        }
+    }
+
+    /* A copy of the current state of the links and of the rows chosen so far, used by ParallelDlxSolver to search
+     * a subtree independently of the solver it was copied from. */
+    ExactCoverSolver(ExactCoverSolver source) {
+        problem = source.problem;
+        left = source.left.clone();
+        right = source.right.clone();
+        up = source.up.clone();
+        down = source.down.clone();
+        column = source.column.clone();
+        size = source.size.clone();
+        solution = source.solution.clone();
+        pushed = source.pushed;
+        primaryColumns = source.primaryColumns;
+        lastBucket = source.lastBucket;
+        bucketWords = source.bucketWords;
+        buckets = source.buckets.clone();
+        bucketSize = source.bucketSize.clone();
+        maxSolutions = source.maxSolutions;
+        budget = source.budget;
+        startTime = source.startTime;
+    }
+
+    public ExactCover problem() {
+        return problem;
+    }
+
+    /* Searches for at most maxSolutions solutions. */
+    public ExactCoverResult solve(int maxSolutions) {
+        return solve(NO_ROWS, maxSolutions, SearchBudget.UNLIMITED);
+    }
+
+    /* Searches for at most maxSolutions solutions that contain all the selectedRows, stopping early once the budget
+     * is exhausted. The rows of every solution include the pushed and the selected ones. Selected rows that share a
+     * column with each other or with a pushed row make the problem unsolvable. */
+    public ExactCoverResult solve(int[] selectedRows, int maxSolutions, SearchBudget budget) {
+        start(selectedRows, maxSolutions, budget);
+        int selected = applyRows();
+        if (selected >= 0) {
+            search(selected);
+            releaseRows(selected);
+        }
+        this.selectedRows = NO_ROWS;
+        var statistics = SearchStatistics.ofSearch(System.nanoTime() - startTime, nodes);
+        return ExactCoverResult.of(solutions, maxSolutions, exhaustion, statistics);
+    }
+
+    /* Enumerates every solution that contains the selectedRows, in the order of the search. The search only
+     * advances when the next solution is asked for and holds nothing but its current path, so any number of
+     * solutions can be processed in constant memory. The solver belongs to the iterator until it is exhausted or
+     * closed; searching anything else with the same solver closes it. */
+    public SolutionIterator solutions(int[] selectedRows, SearchBudget budget) {
+        start(selectedRows, Integer.MAX_VALUE, budget);
+        enumeration = new SolutionIterator(applyRows());
+        return enumeration;
+    }
+
+    public SolutionIterator solutions() {
+        return solutions(NO_ROWS, SearchBudget.UNLIMITED);
+    }
+
+    /* Counts the solutions that contain the selectedRows without building any of them. */
+    public SolutionCount count(int[] selectedRows, SearchBudget budget) {
+        start(selectedRows, Integer.MAX_VALUE, budget);
+        int selected = applyRows();
+        long count = 0;
+        if (selected >= 0) {
+            int k = selected;
+            boolean resume = false;
+            while ((k = next(selected, k, resume)) >= 0) {
+                count++;
+                resume = true;
+            }
+            releaseRows(selected);
+        }
+        this.selectedRows = NO_ROWS;
+        return new SolutionCount(count, exhaustion, SearchStatistics.ofSearch(System.nanoTime() - startTime, nodes));
+    }
+
+    public SolutionCount count() {
+        return count(NO_ROWS, SearchBudget.UNLIMITED);
+    }
+
+    /* Selects the row for every following search, on top of the rows pushed before. Returns false, changing
+     * nothing, if the row shares a column with one of them. */
+    public boolean push(int row) {
+        closeEnumeration();
+        checkRow(row);
+        int node = problem.firstNode[row];
+        if (!isAvailable(node)) {
+            return false;
+        }
+        select(node);
+        solution[pushed++] = node;
+        return true;
+    }
+
+    /* Releases the row pushed last and returns it. */
+    public int pop() {
+        if (pushed == 0) {
+            throw new IllegalStateException("No row has been pushed");
+        }
+        closeEnumeration();
+        int node = solution[--pushed];
+        unselect(node);
+        return problem.rowOf[node];
+    }
+
+    /* The number of rows pushed and not popped yet. */
+    public int pushed() {
+        return pushed;
+    }
+
+    void start(int[] selectedRows, int maxSolutions, SearchBudget budget) {
+        if (maxSolutions < 1) {
+            throw new IllegalArgumentException("maxSolutions must be at least 1, was: " + maxSolutions);
+        }
+        closeEnumeration();
+        this.selectedRows = selectedRows;
+        this.maxSolutions = maxSolutions;
+        this.budget = budget;
+        solutions.clear();
+        startTime = System.nanoTime();
+        nodes = 0;
+        exhaustion = SolveResult.Exhaustion.NONE;
+    }
+
+    private void closeEnumeration() {
+        if (enumeration != null) {
+            enumeration.close();
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= problem.rows) {
+            throw new IllegalArgumentException("Row %d out of range 0..%d".formatted(row, problem.rows - 1));
+        }
+    }
+
+    // selects the selected rows on top of the pushed ones, the same way search() selects a row. Only these rows are
+    // touched, the rest of the links stays as it is. Returns the depth the search starts from, the number of pushed
+    // and selected rows, or -1 if a selected row shares a column with another one.
+    int applyRows() {
+        int k = pushed;
+        for (int row : selectedRows) {
+            if (row < 0 || row >= problem.rows) {
+                releaseRows(k);
+                checkRow(row);
+            }
+            int node = problem.firstNode[row];
+            if (!isAvailable(node)) {
+                releaseRows(k);
+                return -1;
+            }
+            select(node);
+            solution[k++] = node;
+        }
+        return k;
+    }
+
+    // rows only ever disappear when one of their columns is covered, so a row is still available
+    // exactly when none of its columns has been covered yet
+    private boolean isAvailable(int node) {
+        int j = node;
+        do {
+            int c = column[j];
+            if (right[left[c]] != c) {
+                return false;
+            }
+            j = right[j];
+        } while (j != node);
+        return true;
+    }
+
+    // releases the selected rows below depth k, in reverse order of selection; the pushed rows stay
+    void releaseRows(int k) {
+        for (int i = k - 1; i >= pushed; i--) {
+            unselect(solution[i]);
+        }
+    }
+
+    void select(int node) {
+        cover(column[node]);
+        for (int j = right[node]; j != node; j = right[j]) {
+            cover(column[j]);
+        }
+    }
+
+    private void unselect(int node) {
+        for (int j = left[node]; j != node; j = left[j]) {
+            uncover(column[j]);
+        }
+        uncover(column[node]);
+    }
+
+    // the searching algorithm, the same one as AlgorithmXSolver.search but on node indexes and without recursion.
+    // Returns true if the search stopped early, because maxSolutions solutions have been found or the budget is
+    // exhausted; either way all the columns are uncovered again on the way out, so the links are always restored
+    // for the next search.
+    boolean search(int start) {
+        int k = start;
+        boolean resume = false;
+        while ((k = next(start, k, resume)) >= 0) {
+            if (solutionFound(k)) {
+                unwind(start, k);
+                return true;
+            }
+            resume = true;
+        }
+        return exhaustion != SolveResult.Exhaustion.NONE;
+    }
+
+    // advances the search to its next solution and returns the depth of that solution, with its rows still
+    // selected so it can be read. solution[start..k-1] is the stack: the row chosen at every depth, and the column
+    // covered at that depth is the column of that row. With resume the search continues from the solution at depth
+    // k it returned before. Returns -1, with all the levels above start undone, once there are no more solutions
+    // or the budget is exhausted.
+    private int next(int start, int k, boolean resume) {
+        boolean backtrack = resume;
+        while (true) {
+            if (!backtrack) {
+                if (right[ROOT] == ROOT) { // if we've run out of primary columns, we've solved the exact cover problem!
+                    return k;
+                }
+                if (budgetExhausted()) {
+                    unwind(start, k);
+                    return -1;
+                }
+                int c = choose();
+                cover(c);
+                int r = down[c];
+                if (r != c) {
+                    selectRow(k++, r);
+                    continue;
+                }
+                uncover(c); // no row left for this column, a dead end
+            }
+            backtrack = false;
+            // backtrack to the deepest level that still has another row to try
+            while (true) {
+                if (k == start) {
+                    return -1;
+                }
+                int r = solution[--k];
+                int c = column[r];
+                unselectRow(r);
+                r = down[r];
+                if (r != c) {
+                    selectRow(k++, r);
+                    break;
+                }
+                uncover(c);
+            }
+        }
+    }
+
+    // chooses the row at depth k, its column is already covered
+    private void selectRow(int k, int r) {
+        solution[k] = r;
+        for (int j = right[r]; j != r; j = right[j]) {
+            cover(column[j]);
+        }
+    }
+
+    private void unselectRow(int r) {
+        for (int j = left[r]; j != r; j = left[j]) {
+            uncover(column[j]);
+        }
+    }
+
+    // undoes the levels start..k-1 of a search that stops early
+    private void unwind(int start, int k) {
+        while (k > start) {
+            int r = solution[--k];
+            unselectRow(r);
+            uncover(column[r]);
+        }
+    }
+
+    // counts the node and checks the budget, the clock and the cancellation token only every CHECK_INTERVAL nodes
+    private boolean budgetExhausted() {
+        if (++nodes > budget.maxNodes()) {
+            nodes--;
+            exhaustion = SolveResult.Exhaustion.NODES;
+        } else if ((nodes & (CHECK_INTERVAL - 1)) == 0) {
+            exhaustion = checkBudget();
+        }
+        return exhaustion != SolveResult.Exhaustion.NONE;
+    }
+
+    SolveResult.Exhaustion checkBudget() {
+        if (budget.cancellation().isCancelled()) {
+            return SolveResult.Exhaustion.CANCELLED;
+        }
+        if (budget.hasTimeLimit() && System.nanoTime() - startTime > budget.timeLimitNanos()) {
+            return SolveResult.Exhaustion.TIME;
+        }
+        return SolveResult.Exhaustion.NONE;
+    }
+
+    // records the solution at depth k, returns true if the search should stop
+    boolean solutionFound(int k) {
+        solutions.add(rowsOf(k));
+        return solutions.size() >= maxSolutions;
+    }
+
+    // the rows chosen at depths 0..k-1, every node knows the row it belongs to
+    int[] rowsOf(int k) {
+        var rows = new int[k];
+        for (int i = 0; i < k; i++) {
+            rows[i] = problem.rowOf[solution[i]];
+        }
+        return rows;
+    }
+
+    // choose the column with the smallest size, as recommended by Knuth, and the first one in header order among
+    // the columns of that size. Only called while there is an active primary column, so some bucket is not empty.
+    int choose() {
+        return firstSmallest();
+    }
+
+    // the scan of choose(), which chooseFrom() falls back to without going through an override of choose()
+    private int firstSmallest() {
+        int s = 0;
+        while (bucketSize[s] == 0) {
+            s++;
+        }
+        int word = s * bucketWords;
+        while (buckets[word] == 0) {
+            word++;
+        }
+        int first = s * bucketWords;
+        int smallest = ((word - first) << 6) + Long.numberOfTrailingZeros(buckets[word]);
+        if (s < lastBucket) {
+            return smallest;
+        }
+        // the columns of the last bucket can have any size of at least lastBucket
+        for (; word < first + bucketWords; word++) {
+            for (long bits = buckets[word]; bits != 0; bits &= bits - 1) {
+                int c = ((word - first) << 6) + Long.numberOfTrailingZeros(bits);
+                if (size[c] < size[smallest]) {
+                    smallest = c;
+                }
+            }
+        }
+        return smallest;
+    }
+
+    // like choose(), but among the columns of the smallest size the first one at or after column from, wrapping
+    // around to the first column. Lets a subclass break the ties some other way than by header order.
+    int chooseFrom(int from) {
+        int s = 0;
+        while (bucketSize[s] == 0) {
+            s++;
+        }
+        if (s == lastBucket) {
+            return firstSmallest();
+        }
+        int first = s * bucketWords;
+        int word = from >>> 6;
+        long bits = buckets[first + word] & (-1L << from);
+        while (bits == 0) {
+            word = word + 1 == bucketWords ? 0 : word + 1;
+            bits = buckets[first + word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    void cover(int c) {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        if (c <= primaryColumns) {
+            leaveBucket(c, bucketOf(size[c]));
+        }
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                int cj = column[j];
+                int s = size[cj]--;
+                if (cj <= primaryColumns && s <= lastBucket) {
+                    leaveBucket(cj, s);
+                    enterBucket(cj, s - 1);
+                }
+            }
+        }
+    }
+
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                int cj = column[j];
+                int s = ++size[cj];
+                if (cj <= primaryColumns && s <= lastBucket) {
+                    leaveBucket(cj, s - 1);
+                    enterBucket(cj, s);
+                }
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        if (c <= primaryColumns) {
+            enterBucket(c, bucketOf(size[c]));
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+    }
+
+    private int bucketOf(int size) {
+        return Math.min(size, lastBucket);
+    }
+
+    private void enterBucket(int c, int bucket) {
+        buckets[bucket * bucketWords + (c >>> 6)] |= 1L << c;
+        bucketSize[bucket]++;
+    }
+
+    private void leaveBucket(int c, int bucket) {
+        buckets[bucket * bucketWords + (c >>> 6)] &= ~(1L << c);
+        bucketSize[bucket]--;
+    }
+
+    /* The solutions of one search as row numbers, found one at a time. exhaustion() tells whether the enumeration
+     * ended because the budget ran out rather than because there are no more solutions. */
+    public final class SolutionIterator implements Iterator<int[]>, AutoCloseable {
+
+        private final int selected;
+        private int k;
+        // a solution has been found at depth k and not returned yet
+        private boolean ready;
+        private boolean resume;
+        private boolean done;
+
+        private SolutionIterator(int selected) {
+            this.selected = selected;
+            this.k = selected;
+            if (selected < 0) {
+                finish(); // the selected rows conflict, they have already been released
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!ready && !done) {
+                k = ExactCoverSolver.this.next(selected, k, resume);
+                if (k < 0) {
+                    releaseRows(selected);
+                    finish();
+                } else {
+                    ready = true;
+                    resume = true;
+                }
+            }
+            return ready;
+        }
+
+        @Override
+        public int[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            return rowsOf(k);
+        }
+
+        public SolveResult.Exhaustion exhaustion() {
+            return done ? exhaustion : SolveResult.Exhaustion.NONE;
+        }
+
+        /* Stops the enumeration and restores the links, so the solver can be used again. */
+        @Override
+        public void close() {
+            if (!done) {
+                unwind(selected, k);
+                releaseRows(selected);
+                finish();
+            }
+        }
+
+        private void finish() {
+            done = true;
+            ready = false;
+            if (enumeration == this) {
+                enumeration = null;
+            }
+            selectedRows = NO_ROWS;
+        }
+    }
+}
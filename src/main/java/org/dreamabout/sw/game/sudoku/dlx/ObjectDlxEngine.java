@@ -0,0 +1,10 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+/* The DLX_OBJECT engine: a new AlgorithmXSolver, with its matrix of Node and ColumnNode objects, for every puzzle. */
+final class ObjectDlxEngine implements SolverEngine {
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions) {
+        return new AlgorithmXSolver(grid.getGrid()).solve(maxSolutions);
+    }
+}
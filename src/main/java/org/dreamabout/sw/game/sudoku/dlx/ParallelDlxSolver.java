@@ -0,0 +1,234 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.dreamabout.sw.game.sudoku.dlx.ExactCover.ROOT;
+
+/* Searches a single puzzle on several cores. The first levels of the Dancing Links search tree are split: at each
+ * of them every row of the chosen column becomes a task with its own copy of the ExactCoverSolver links, with that
+ * row already selected. Below splitDepth every task runs the ordinary sequential search on its copy. The tasks
+ * run on a ForkJoinPool, so idle workers steal the remaining subtrees from the busy ones, and as soon as
+ * maxSolutions solutions have been found the other tasks are cancelled: every search checks a shared flag
+ * together with its SearchBudget. The node budget is shared by all the tasks.
+ *
+ * Columns with a single row left are forced and do not count as a level, they are selected in place. Copying the
+ * links costs a few hundred KB for a 16x16 grid, so this only pays off for hard, large puzzles; easy 9x9 puzzles
+ * are solved faster by a plain ArrayDlxSolver. When several solutions are requested they are returned in the
+ * order they were found, which is not the order of the sequential search. Not thread safe, but the engine can
+ * be reused for any number of puzzles. */
+public class ParallelDlxSolver implements SolverEngine {
+
+    private static final int DEFAULT_SPLIT_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    // holds the ExactCoverSolver of the current grid size, only used to apply the clues; the subtrees are
+    // searched on copies of its links
+    private final ArrayDlxSolver sequential = new ArrayDlxSolver();
+
+    public ParallelDlxSolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    public ParallelDlxSolver(ForkJoinPool pool, int splitDepth) {
+        if (splitDepth < 0) {
+            throw new IllegalArgumentException("splitDepth must not be negative, was: " + splitDepth);
+        }
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions) {
+        return solve(grid.getGrid(), maxSolutions);
+    }
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions, SearchBudget budget) {
+        return solve(grid.getGrid(), maxSolutions, budget);
+    }
+
+    /* Searches for at most maxSolutions solutions of the puzzle without modifying the grid. */
+    public SolveResult solve(int[][] grid, int maxSolutions) {
+        return solve(grid, maxSolutions, SearchBudget.UNLIMITED);
+    }
+
+    public SolveResult solve(int[][] grid, int maxSolutions, SearchBudget budget) {
+        var event = new SolveEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        var solver = sequential.solverFor(grid);
+        solver.start(SudokuCover.clueRows(grid), maxSolutions, budget);
+        int clues = solver.applyRows();
+        var found = new Solutions(maxSolutions, budget.maxNodes());
+        if (clues >= 0) {
+            try {
+                pool.invoke(new Subtree(new Branch(solver, found), -1, clues, 0));
+            } finally {
+                solver.releaseRows(clues);
+            }
+        }
+        var solutions = new ArrayList<int[][]>(found.solutions.size());
+        for (int[] rows : found.solutions) {
+            solutions.add(SudokuCover.toGrid(rows, grid.length));
+        }
+        var statistics = SearchStatistics.ofSearch(System.nanoTime() - startTime, found.nodes.get());
+        var result = SolveResult.of(solutions, maxSolutions, found.exhaustion, statistics);
+        event.commit(EngineType.DLX_PARALLEL.name(), grid, result);
+        return result;
+    }
+
+    // the solutions found by all the tasks of one solve, the nodes they visited, and the flag that stops them once
+    // there are enough solutions or the budget is exhausted
+    private static final class Solutions {
+
+        private final int maxSolutions;
+        private final long maxNodes;
+        // the rows of every solution, decoded into grids once the search is over
+        private final List<int[]> solutions = new ArrayList<>();
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private final AtomicLong nodes = new AtomicLong();
+        private SolveResult.Exhaustion exhaustion = SolveResult.Exhaustion.NONE;
+
+        private Solutions(int maxSolutions, long maxNodes) {
+            this.maxSolutions = maxSolutions;
+            this.maxNodes = maxNodes;
+        }
+
+        private synchronized boolean add(int[] solved) {
+            if (solutions.size() < maxSolutions) {
+                solutions.add(solved);
+            }
+            if (solutions.size() >= maxSolutions) {
+                stopped.set(true);
+            }
+            return stopped.get();
+        }
+
+        // called when a task is over, however it ends. Only the first reason to stop is kept; tasks that were only
+        // stopped because another one found the last solution or ran out of budget change nothing.
+        private synchronized void finish(Branch branch) {
+            branch.flushNodes();
+            if (branch.exhaustion != SolveResult.Exhaustion.NONE) {
+                if (exhaustion == SolveResult.Exhaustion.NONE && solutions.size() < maxSolutions) {
+                    exhaustion = branch.exhaustion;
+                }
+                stopped.set(true);
+            }
+        }
+    }
+
+    // a copy of the links that reports its solutions to the shared list and gives up once the search is stopped
+    private static final class Branch extends ExactCoverSolver {
+
+        private final Solutions found;
+        // the nodes of this branch already added to the shared count
+        private long flushed;
+
+        private Branch(ExactCoverSolver source, Solutions found) {
+            super(source);
+            this.found = found;
+        }
+
+        // the nodes are added to the shared count every CHECK_INTERVAL nodes, the rest when the task finishes
+        @Override
+        SolveResult.Exhaustion checkBudget() {
+            long visited = flushNodes();
+            if (found.stopped.get()) {
+                return SolveResult.Exhaustion.CANCELLED;
+            }
+            if (visited > found.maxNodes) {
+                return SolveResult.Exhaustion.NODES;
+            }
+            return super.checkBudget();
+        }
+
+        // adds the nodes visited since the last call to the shared count and returns the new total
+        private long flushNodes() {
+            long visited = found.nodes.addAndGet(nodes - flushed);
+            flushed = nodes;
+            return visited;
+        }
+
+        @Override
+        boolean solutionFound(int k) {
+            return found.add(rowsOf(k));
+        }
+    }
+
+    @SuppressWarnings("serial") // a task only lives for one solve, it is never serialized
+    private final class Subtree extends RecursiveAction {
+
+        // the links the subtree starts from and the row still to be selected, -1 for the root. The parent is not
+        // touched while its subtrees run, so the copy is only made when a task starts, and only the running
+        // tasks and their ancestors hold a copy of the links.
+        private final Branch parent;
+        private final int row;
+        private final int k;
+        private final int depth;
+
+        private Subtree(Branch parent, int row, int k, int depth) {
+            this.parent = parent;
+            this.row = row;
+            this.k = k;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (parent.found.stopped.get()) {
+                return;
+            }
+            var branch = row < 0 ? parent : new Branch(parent, parent.found);
+            try {
+                search(branch);
+            } finally {
+                branch.found.finish(branch);
+            }
+        }
+
+        // the levels above splitDepth are counted as nodes here, the same way the sequential search counts them
+        private void search(Branch branch) {
+            int k = this.k;
+            if (row >= 0) {
+                branch.solution[k++] = row;
+                branch.select(row);
+            }
+            while (!branch.found.stopped.get()) {
+                if (depth >= splitDepth) {
+                    branch.search(k);
+                    return;
+                }
+                if (branch.right[ROOT] == ROOT) {
+                    branch.solutionFound(k);
+                    return;
+                }
+                branch.nodes++;
+                int c = branch.choose();
+                if (branch.size[c] == 0) {
+                    return; // dead end, a constraint can no longer be satisfied
+                }
+                if (branch.size[c] > 1) {
+                    split(branch, c, k);
+                    return;
+                }
+                // a forced row, no need to copy anything
+                branch.solution[k++] = branch.down[c];
+                branch.select(branch.down[c]);
+            }
+        }
+
+        private void split(Branch branch, int c, int k) {
+            var subtrees = new ArrayList<Subtree>(branch.size[c]);
+            for (int r = branch.down[c]; r != c; r = branch.down[r]) {
+                subtrees.add(new Subtree(branch, r, k, depth + 1));
+            }
+            invokeAll(subtrees);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* Races several copies of the Dancing Links search on the same puzzle, each on its own virtual thread, and takes
+ * the result of the first one to finish. The number of nodes a hard puzzle needs is heavy tailed: the search
+ * breaks the ties between columns of the same size by their order, and an unlucky choice near the root can cost
+ * orders of magnitude more nodes than another column of the same size would have. Every racer breaks these ties
+ * differently: the first one by header order, exactly like DLX_ARRAY, so the portfolio is never much slower than
+ * it, the others by picking one of the smallest columns at random from their own seed. The seeds are fixed, so a
+ * puzzle is always searched the same way.
+ *
+ * As soon as a racer finishes, with its solutions, with none or out of budget, the others are cancelled; they check
+ * a shared flag together with their SearchBudget and yield their carrier thread at the same time, so they also
+ * take turns when there are more racers than cores. The node budget is shared by all the racers. statistics()
+ * tells how often every strategy raced and won, to tune the number of racers for a workload.
+ *
+ * When several solutions are requested every racer finds them in its own order, so which ones are returned
+ * depends on the winner. Not thread safe, but the engine can be reused for any number of puzzles; the statistics
+ * can be read from any thread. */
+public class PortfolioSolver implements SolverEngine {
+
+    private static final long DEFAULT_SEED = 0x5DEECE66DL;
+
+    private final int racerCount;
+    private final long seed;
+    private final AtomicLongArray races;
+    private final AtomicLongArray wins;
+    private final AtomicLongArray nodes;
+    private Racer[] racers = new Racer[0];
+    private int n;
+
+    public PortfolioSolver() {
+        this(Math.clamp(Runtime.getRuntime().availableProcessors(), 2, 4), DEFAULT_SEED);
+    }
+
+    public PortfolioSolver(int racers, long seed) {
+        if (racers < 1) {
+            throw new IllegalArgumentException("racers must be at least 1, was: " + racers);
+        }
+        this.racerCount = racers;
+        this.seed = seed;
+        this.races = new AtomicLongArray(racers);
+        this.wins = new AtomicLongArray(racers);
+        this.nodes = new AtomicLongArray(racers);
+    }
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions) {
+        return solve(grid.getGrid(), maxSolutions);
+    }
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions, SearchBudget budget) {
+        return solve(grid.getGrid(), maxSolutions, budget);
+    }
+
+    /* Searches for at most maxSolutions solutions of the puzzle without modifying the grid. */
+    public SolveResult solve(int[][] grid, int maxSolutions) {
+        return solve(grid, maxSolutions, SearchBudget.UNLIMITED);
+    }
+
+    public SolveResult solve(int[][] grid, int maxSolutions, SearchBudget budget) {
+        var event = new SolveEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        int[] clues = SudokuCover.clueRows(grid);
+        var race = new Race(budget.maxNodes());
+        var racers = racersFor(grid);
+        var threads = new Thread[racers.length];
+        for (int i = 0; i < racers.length; i++) {
+            var racer = racers[i];
+            racer.enter(race);
+            threads[i] = Thread.ofVirtual().name("portfolio-racer-" + i).start(() -> racer.run(clues, maxSolutions, budget));
+        }
+        joinAll(threads, race);
+
+        long visited = 0;
+        Throwable failure = null;
+        for (var racer : racers) {
+            visited += racer.nodes;
+            races.incrementAndGet(racer.strategy);
+            nodes.addAndGet(racer.strategy, racer.nodes);
+            if (failure == null) {
+                failure = racer.failure;
+            }
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+        var winner = race.winner;
+        if (winner.result.exhaustion() == SolveResult.Exhaustion.NONE) {
+            wins.incrementAndGet(winner.strategy);
+        }
+        var solutions = new ArrayList<int[][]>(winner.result.solutionCount());
+        for (int[] rows : winner.result.solutions()) {
+            solutions.add(SudokuCover.toGrid(rows, n));
+        }
+        var statistics = SearchStatistics.ofSearch(System.nanoTime() - startTime, visited);
+        var result = SolveResult.of(solutions, maxSolutions, winner.result.exhaustion(), statistics);
+        event.commit(EngineType.DLX_PORTFOLIO.name(), grid, result);
+        return result;
+    }
+
+    /* How often every strategy raced and won so far, and the nodes it visited, winning or not. */
+    public List<StrategyStatistics> statistics() {
+        var statistics = new ArrayList<StrategyStatistics>(racerCount);
+        for (int i = 0; i < racerCount; i++) {
+            statistics.add(new StrategyStatistics(strategyName(i), races.get(i), wins.get(i), nodes.get(i)));
+        }
+        return statistics;
+    }
+
+    /* The record of one strategy of the portfolio. A race only counts as won when the winner finished its search,
+     * not when it was the first to run out of budget. */
+    public record StrategyStatistics(String strategy, long races, long wins, long nodes) {
+
+        public double winRate() {
+            return races == 0 ? 0 : (double) wins / races;
+        }
+    }
+
+    // the racers for the size of the grid; their links are only copied again when the size changes
+    private Racer[] racersFor(int[][] grid) {
+        if (grid.length != n || racers.length == 0) {
+            var problem = SudokuCover.forSize(SudokuGrid.boxSize(grid.length));
+            racers = new Racer[racerCount];
+            for (int i = 0; i < racerCount; i++) {
+                racers[i] = new Racer(problem, i, i == 0 ? 0 : mix(seed + i));
+            }
+            n = grid.length;
+        }
+        return racers;
+    }
+
+    // waits for every racer, even when interrupted, because their links must be restored before the next solve
+    private static void joinAll(Thread[] threads, Race race) {
+        boolean interrupted = false;
+        for (var thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    race.stopped.set(true);
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String strategyName(int strategy) {
+        return strategy == 0 ? "first-column" : "random-column-" + strategy;
+    }
+
+    // the finalizer of SplitMix64, spreads consecutive seeds over all the bits, never returns 0 for them
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return z == 0 ? 1 : z;
+    }
+
+    // one solve: the first racer to finish and the flag and the node count shared by all of them
+    private static final class Race {
+
+        private final long maxNodes;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private final AtomicLong nodes = new AtomicLong();
+        private volatile Racer winner;
+
+        private Race(long maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+
+        private void finish(Racer racer) {
+            if (stopped.compareAndSet(false, true)) {
+                winner = racer;
+            } else if (winner == null) {
+                // stopped by an interrupt of the caller, any racer will do
+                winner = racer;
+            }
+        }
+    }
+
+    // a solver with its own links and its own way of breaking the ties between columns of the smallest size
+    private static final class Racer extends ExactCoverSolver {
+
+        private final int strategy;
+        private final long seed;
+        private final int columns;
+        private long random;
+        private Race race;
+        private ExactCoverResult result;
+        private Throwable failure;
+
+        private Racer(ExactCover problem, int strategy, long seed) {
+            super(problem);
+            this.strategy = strategy;
+            this.seed = seed;
+            this.columns = problem.primaryColumns;
+        }
+
+        private void enter(Race race) {
+            this.race = race;
+            random = seed;
+            result = null;
+            failure = null;
+        }
+
+        private void run(int[] clues, int maxSolutions, SearchBudget budget) {
+            // whatever goes wrong, even a StackOverflowError, the racer finishes, so the caller always has a result
+            try {
+                result = solve(clues, maxSolutions, budget);
+            } catch (Throwable e) {
+                failure = e;
+                result = ExactCoverResult.of(List.of(), maxSolutions, SolveResult.Exhaustion.CANCELLED, SearchStatistics.NONE);
+            } finally {
+                race.finish(this);
+            }
+        }
+
+        // a random column of the smallest size, xorshift is plenty for breaking ties
+        @Override
+        int choose() {
+            if (seed == 0) {
+                return super.choose();
+            }
+            random ^= random << 13;
+            random ^= random >>> 7;
+            random ^= random << 17;
+            return chooseFrom(1 + (int) Long.remainderUnsigned(random, columns));
+        }
+
+        // the nodes are added to the shared count in steps of CHECK_INTERVAL
+        @Override
+        SolveResult.Exhaustion checkBudget() {
+            Thread.yield();
+            if (race.stopped.get()) {
+                return SolveResult.Exhaustion.CANCELLED;
+            }
+            if (race.nodes.addAndGet(CHECK_INTERVAL) > race.maxNodes) {
+                return SolveResult.Exhaustion.NODES;
+            }
+            return super.checkBudget();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/* The limits of a single search: the number of search nodes it may visit, how long it may run and a token to
+ * cancel it from another thread. A search that runs out of its budget stops with the solutions found so far and
+ * reports which limit it hit, see SolveResult.exhaustion(). The time is only checked every few thousand nodes,
+ * so a search may overrun its time limit by a fraction of a millisecond. */
+public record SearchBudget(long maxNodes, long timeLimitNanos, CancellationToken cancellation) {
+
+    public static final SearchBudget UNLIMITED = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, CancellationToken.NONE);
+
+    public SearchBudget {
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("maxNodes must be at least 1, was: " + maxNodes);
+        }
+        if (timeLimitNanos < 0) {
+            throw new IllegalArgumentException("timeLimitNanos must not be negative, was: " + timeLimitNanos);
+        }
+        Objects.requireNonNull(cancellation, "cancellation");
+    }
+
+    public SearchBudget withMaxNodes(long maxNodes) {
+        return new SearchBudget(maxNodes, timeLimitNanos, cancellation);
+    }
+
+    public SearchBudget withTimeLimit(Duration timeLimit) {
+        return new SearchBudget(maxNodes, timeLimit.toNanos(), cancellation);
+    }
+
+    public SearchBudget withCancellation(CancellationToken cancellation) {
+        return new SearchBudget(maxNodes, timeLimitNanos, cancellation);
+    }
+
+    public boolean hasTimeLimit() {
+        return timeLimitNanos != Long.MAX_VALUE;
+    }
+
+    public boolean isUnlimited() {
+        return maxNodes == Long.MAX_VALUE && !hasTimeLimit() && cancellation == CancellationToken.NONE;
+    }
+}
@@ -0,0 +1,27 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import java.time.Duration;
+
+/* What a search did, for finding out why a puzzle is slow. The time spent building the exact cover matrix,
+ * linking it into the toroidal list and searching it; the search nodes visited, the links unlinked and relinked
+ * by cover and uncover, the deepest level reached and the number of rows that were tried and taken back.
+ * Engines only fill in what they measure, the rest stays 0. */
+public record SearchStatistics(long buildNanos, long linkNanos, long searchNanos,
+                               long nodes, long linkUpdates, int maxDepth, long backtracks) {
+
+    public static final SearchStatistics NONE = new SearchStatistics(0, 0, 0, 0, 0, 0, 0);
+
+    /* The statistics of an engine that only measures its search time and counts its nodes. */
+    public static SearchStatistics ofSearch(long searchNanos, long nodes) {
+        return new SearchStatistics(0, 0, searchNanos, nodes, 0, 0, 0);
+    }
+
+    public Duration totalTime() {
+        return Duration.ofNanos(buildNanos + linkNanos + searchNanos);
+    }
+
+    public String format() {
+        return "matrix %.3f ms, linking %.3f ms, search %.3f ms, %d nodes, %d link updates, depth %d, %d backtracks"
+                .formatted(buildNanos / 1e6, linkNanos / 1e6, searchNanos / 1e6, nodes, linkUpdates, maxDepth, backtracks);
+    }
+}
@@ -0,0 +1,10 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+/* The number of solutions of a puzzle, counted without building any of them. The count is exact unless the
+ * search ran out of its budget, in which case it is the number found until then. */
+public record SolutionCount(long count, SolveResult.Exhaustion exhaustion, SearchStatistics statistics) {
+
+    public boolean isExact() {
+        return exhaustion == SolveResult.Exhaustion.NONE;
+    }
+}
@@ -0,0 +1,93 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/* A Flight Recorder event for every puzzle solved by a DLX engine, so slow puzzles can be found in a running JVM:
+ *
+ *     jcmd <pid> JFR.start name=sudoku settings=profile
+ *     jcmd <pid> JFR.dump name=sudoku filename=sudoku.jfr
+ *     jfr print --events org.dreamabout.sudoku.Solve sudoku.jfr
+ *
+ * The event lasts as long as the whole solve and carries the SearchStatistics of the search. While no recording
+ * is running the event is never committed and costs next to nothing. */
+@Name("org.dreamabout.sudoku.Solve")
+@Label("Sudoku Solve")
+@Category("Sudoku")
+@Description("A puzzle solved by one of the Dancing Links engines")
+@StackTrace(false)
+final class SolveEvent extends Event {
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Grid Size")
+    int gridSize;
+
+    @Label("Clues")
+    int clues;
+
+    @Label("Solutions")
+    int solutions;
+
+    @Label("Exhaustion")
+    @Description("The part of the search budget that stopped the search, NONE if it ran to the end")
+    String exhaustion;
+
+    @Label("Matrix Build Time")
+    @Timespan
+    long buildTime;
+
+    @Label("Linking Time")
+    @Timespan
+    long linkTime;
+
+    @Label("Search Time")
+    @Timespan
+    long searchTime;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Link Updates")
+    long linkUpdates;
+
+    @Label("Maximum Depth")
+    int maxDepth;
+
+    @Label("Backtracks")
+    long backtracks;
+
+    // ends the event and commits it with the outcome of the search, if a recording wants it
+    void commit(String engine, int[][] grid, SolveResult result) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.engine = engine;
+        gridSize = grid.length;
+        for (int[] row : grid) {
+            for (int value : row) {
+                if (value != 0) {
+                    clues++;
+                }
+            }
+        }
+        solutions = result.solutionCount();
+        exhaustion = result.exhaustion().name();
+        var statistics = result.statistics();
+        buildTime = statistics.buildNanos();
+        linkTime = statistics.linkNanos();
+        searchTime = statistics.searchNanos();
+        nodes = statistics.nodes();
+        linkUpdates = statistics.linkUpdates();
+        maxDepth = statistics.maxDepth();
+        backtracks = statistics.backtracks();
+        commit();
+    }
+}
@@ -0,0 +1,57 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import java.util.List;
+
+/* The outcome of a search that was stopped after at most maxSolutions solutions.
+ * solutions holds a copy of every solution found, in the order the search found them, solutionCount is
+ * their number and limitReached tells whether the search stopped because it hit maxSolutions, in which
+ * case there may be more solutions that were never looked at. exhaustion tells whether the search ran out of
+ * its SearchBudget before that, and statistics is what the search did, as far as the engine measures it. */
+public record SolveResult(List<int[][]> solutions, int solutionCount, boolean limitReached, Exhaustion exhaustion,
+                          SearchStatistics statistics) {
+
+    /* Which part of the SearchBudget stopped the search, if any. */
+    public enum Exhaustion {
+        NONE,
+        NODES,
+        TIME,
+        CANCELLED
+    }
+
+    public SolveResult {
+        solutions = List.copyOf(solutions);
+    }
+
+    public static SolveResult of(List<int[][]> solutions, int maxSolutions) {
+        return of(solutions, maxSolutions, Exhaustion.NONE, SearchStatistics.NONE);
+    }
+
+    public static SolveResult of(List<int[][]> solutions, int maxSolutions, Exhaustion exhaustion, SearchStatistics statistics) {
+        boolean limitReached = solutions.size() >= maxSolutions;
+        return new SolveResult(solutions, solutions.size(), limitReached, limitReached ? Exhaustion.NONE : exhaustion, statistics);
+    }
+
+    /* The number of search nodes visited, 0 for the engines that do not count them. */
+    public long nodes() {
+        return statistics.nodes();
+    }
+
+    public boolean isSolved() {
+        return solutionCount > 0;
+    }
+
+    /* True if the search gave up before it was complete; the solutions found until then are still returned. */
+    public boolean isExhausted() {
+        return exhaustion != Exhaustion.NONE;
+    }
+
+    /* Only meaningful when the search was allowed to look for at least two solutions. */
+    public boolean isUnique() {
+        return solutionCount == 1 && !limitReached && !isExhausted();
+    }
+
+    /* The first solution found, or null if there is none. */
+    public int[][] solution() {
+        return solutions.isEmpty() ? null : solutions.getFirst();
+    }
+}
@@ -0,0 +1,26 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+/* A Sudoku solver that can be picked per workload. Implementations never modify the grid they are given,
+ * the solutions come back in the result. An engine may keep state between calls to be reused for many
+ * puzzles, so unless stated otherwise an engine must only be used by one thread at a time. */
+@FunctionalInterface
+public interface SolverEngine {
+
+    /* Searches for at most maxSolutions solutions: 1 stops at the first one, 2 tells whether it is unique. */
+    SolveResult solve(SudokuGrid grid, int maxSolutions);
+
+    default SolveResult solve(SudokuGrid grid) {
+        return solve(grid, 1);
+    }
+
+    /* Searches like solve(grid, maxSolutions), but gives up once the budget is exhausted. Only the engines that
+     * can stop in the middle of a search support a limited budget. */
+    default SolveResult solve(SudokuGrid grid, int maxSolutions, SearchBudget budget) {
+        if (!budget.isUnlimited()) {
+            // a lambda has a generated class name, which says nothing about the engine
+            var name = getClass().isHidden() ? "This engine" : getClass().getSimpleName();
+            throw new UnsupportedOperationException("%s does not support search budgets".formatted(name));
+        }
+        return solve(grid, maxSolutions);
+    }
+}
@@ -0,0 +1,231 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+/* A puzzle being filled in, for checking it after every change: is it still solvable, is the solution unique,
+ * what is a good next digit. The session keeps one ExactCoverSolver alive for the whole puzzle, with every clue
+ * pushed as a selected row, so placing a clue covers a handful of columns and removing it uncovers them again,
+ * instead of building the matrix for the whole grid on every keystroke.
+ *
+ * The answers are cached and kept as long as the clues allow it: a known solution stays valid when a clue that
+ * agrees with it is placed and when any clue is removed, a unique puzzle stays unique when a clue of its solution
+ * is placed, and placing a clue that disagrees with the only solution makes the puzzle unsolvable. A search only
+ * runs when the cache cannot answer.
+ *
+ * Clues are pushed in the order they are placed, so removing the last one is the cheapest; removing an earlier one
+ * pops the clues placed after it and pushes them again. A clue that contradicts another one in its row, column or
+ * block is kept, but leaves the puzzle unsolvable until one of the two is removed. Not thread safe. */
+public final class SolvingSession {
+
+    private static final int[] NO_ROWS = {};
+    private static final int UNKNOWN = -1;
+
+    private final int n;
+    private final ExactCoverSolver solver;
+    private final int[][] clues;
+    // the cells of the clues, row * n + column, in the order they were placed, and whether they could be pushed
+    private final int[] order;
+    private final boolean[] pushed;
+    private int placed;
+    private int conflicts;
+
+    // a solution that agrees with all the clues, if one is known
+    private int[][] solution;
+    // the number of solutions, 2 standing for two or more, if it is known
+    private int solutions = UNKNOWN;
+    private long searches;
+
+    /* An empty grid with n rows. */
+    public SolvingSession(int n) {
+        this.n = n;
+        this.solver = new ExactCoverSolver(SudokuCover.forSize(SudokuGrid.boxSize(n)));
+        this.clues = new int[n][n];
+        this.order = new int[n * n];
+        this.pushed = new boolean[n * n];
+    }
+
+    /* A session that starts from the clues of the grid. The grid is not modified. */
+    public static SolvingSession of(int[][] grid) {
+        var session = new SolvingSession(grid.length);
+        for (int r = 0; r < grid.length; r++) {
+            for (int c = 0; c < grid.length; c++) {
+                if (grid[r][c] != 0) {
+                    session.place(r, c, grid[r][c]);
+                }
+            }
+        }
+        return session;
+    }
+
+    public int gridSize() {
+        return n;
+    }
+
+    /* The clue in the cell, 0 if it is empty. */
+    public int get(int row, int column) {
+        checkCell(row, column);
+        return clues[row][column];
+    }
+
+    /* A copy of the clues placed so far. */
+    public int[][] grid() {
+        var grid = new int[n][];
+        for (int r = 0; r < n; r++) {
+            grid[r] = clues[r].clone();
+        }
+        return grid;
+    }
+
+    /* Puts the digit into the cell, replacing the clue that was there. Returns false if it contradicts another clue
+     * of its row, column or block; it is placed anyway and the puzzle is unsolvable until one of them is removed. */
+    public boolean place(int row, int column, int value) {
+        checkCell(row, column);
+        if (value < 1 || value > n) {
+            throw new IllegalArgumentException("Invalid value %d, must be between 1 and %d".formatted(value, n));
+        }
+        if (clues[row][column] == value) {
+            return pushed[indexOf(row * n + column)];
+        }
+        remove(row, column);
+        clues[row][column] = value;
+        boolean consistent = solver.push(SudokuCover.rowIndex(n, value - 1, row, column));
+        order[placed] = row * n + column;
+        pushed[placed++] = consistent;
+        if (!consistent) {
+            conflicts++;
+            solution = null;
+            solutions = 0;
+        } else if (solution != null && solution[row][column] == value) {
+            // the known solution is still one, but the others may not be
+            if (solutions > 1) {
+                solutions = UNKNOWN;
+            }
+        } else {
+            // a unique solution that disagrees was the only one
+            solution = null;
+            solutions = solutions == 0 || solutions == 1 ? 0 : UNKNOWN;
+        }
+        return consistent;
+    }
+
+    /* Empties the cell, if it holds a clue. */
+    public void remove(int row, int column) {
+        checkCell(row, column);
+        if (clues[row][column] == 0) {
+            return;
+        }
+        // pop the clues back to this one, then push the ones placed after it again
+        int index = indexOf(row * n + column);
+        for (int i = placed - 1; i >= index; i--) {
+            if (pushed[i]) {
+                solver.pop();
+            }
+        }
+        clues[row][column] = 0;
+        placed--;
+        conflicts = 0;
+        for (int i = 0; i < placed; i++) {
+            if (i >= index) {
+                int cell = order[i + 1];
+                order[i] = cell;
+                pushed[i] = solver.push(SudokuCover.rowIndex(n, clues[cell / n][cell % n] - 1, cell / n, cell % n));
+            }
+            if (!pushed[i]) {
+                conflicts++;
+            }
+        }
+        // a known solution stays one, and more than one stay more than one, but the others may have become solvable
+        if (conflicts > 0) {
+            solution = null;
+            solutions = 0;
+        } else if (solutions < 2) {
+            solutions = UNKNOWN;
+        }
+    }
+
+    /* Removes every clue, in the reverse order of placement so that every removal is a single pop. */
+    public void clear() {
+        while (placed > 0) {
+            int cell = order[--placed];
+            if (pushed[placed]) {
+                solver.pop();
+            }
+            clues[cell / n][cell % n] = 0;
+        }
+        conflicts = 0;
+        solution = null;
+        solutions = UNKNOWN;
+    }
+
+    /* Whether the clues can still be completed into a solution. */
+    public boolean isSolvable() {
+        if (solution == null && solutions == UNKNOWN) {
+            search(1);
+        }
+        return solution != null;
+    }
+
+    /* Whether the clues have exactly one solution. */
+    public boolean isUnique() {
+        if (solutions == UNKNOWN) {
+            search(2);
+        }
+        return solutions == 1;
+    }
+
+    /* A solution that agrees with all the clues, or null if there is none. */
+    public int[][] solution() {
+        if (!isSolvable()) {
+            return null;
+        }
+        var copy = new int[n][];
+        for (int r = 0; r < n; r++) {
+            copy[r] = solution[r].clone();
+        }
+        return copy;
+    }
+
+    /* The digit of a solution for the first empty cell, or null if the grid is full or cannot be solved. */
+    public Hint hint() {
+        if (!isSolvable()) {
+            return null;
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (clues[r][c] == 0) {
+                    return new Hint(r, c, solution[r][c]);
+                }
+            }
+        }
+        return null;
+    }
+
+    /* The number of searches run so far, every other answer came from the cache. */
+    public long searches() {
+        return searches;
+    }
+
+    public record Hint(int row, int column, int value) {
+    }
+
+    private void search(int maxSolutions) {
+        searches++;
+        var result = solver.solve(NO_ROWS, maxSolutions, SearchBudget.UNLIMITED);
+        solution = result.isSolved() ? SudokuCover.toGrid(result.solution(), n) : null;
+        if (!result.isSolved() || maxSolutions == 2) {
+            solutions = result.solutionCount();
+        }
+    }
+
+    private int indexOf(int cell) {
+        int index = placed - 1;
+        while (order[index] != cell) {
+            index--;
+        }
+        return index;
+    }
+
+    private void checkCell(int row, int column) {
+        if (row < 0 || row >= n || column < 0 || column >= n) {
+            throw new IndexOutOfBoundsException("Cell %d, %d of a %dx%d grid".formatted(row, column, n, n));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* Sudoku as an ExactCover problem: one row for every digit in every cell, and n^2 primary columns for each of
+ * the four constraints, a digit once per row, per column and per block and every cell filled. The cover matrix
+ * only depends on the size of the grid, so it is built once per size and shared by every solver; a puzzle is then
+ * just the rows of its clues, selected in advance, instead of a new matrix. The columns are laid out the same way
+ * as in AlgorithmXSolver.mapSparseMatrix, so both engines can be compared on the same inputs. */
+final class SudokuCover {
+
+    private static final Map<Integer, ExactCover> COVERS = new ConcurrentHashMap<>();
+
+    private SudokuCover() {
+    }
+
+    /* Returns the problem for grids with the given size parameter, building it on first use. */
+    static ExactCover forSize(int size) {
+        return COVERS.computeIfAbsent(size, SudokuCover::build);
+    }
+
+    /* The matrix row for placing digit d (0 based) into row r and column c of a grid with n rows. */
+    static int rowIndex(int n, int d, int r, int c) {
+        return c + (n * r) + (n * n * d);
+    }
+
+    /* The rows of the clues of the puzzle, in the order of the cells. */
+    static int[] clueRows(int[][] grid) {
+        int n = grid.length;
+        int clues = 0;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (grid[r][c] > n) {
+                    throw new IllegalArgumentException("Invalid value %d at row %d, column %d".formatted(grid[r][c], r, c));
+                }
+                if (grid[r][c] > 0) {
+                    clues++;
+                }
+            }
+        }
+        var rows = new int[clues];
+        int k = 0;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (grid[r][c] > 0) {
+                    rows[k++] = rowIndex(n, grid[r][c] - 1, r, c);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /* The grid filled in by the rows of a solution; the row index encodes the digit and the cell. */
+    static int[][] toGrid(int[] rows, int n) {
+        int[][] solved = new int[n][n];
+        for (int row : rows) {
+            int d = row / (n * n);
+            int cell = row % (n * n);
+            solved[cell / n][cell % n] = d + 1;
+        }
+        return solved;
+    }
+
+    private static ExactCover build(int size) {
+        int n = size * size;
+        var builder = ExactCover.builder(4 * n * n, 0);
+        for (int d = 0; d < n; d++) {
+            for (int r = 0; r < n; r++) {
+                for (int c = 0; c < n; c++) {
+                    int blockIndex = (c / size) + ((r / size) * size);
+                    builder.addRow(3 * n * d + r, 3 * n * d + n + c, 3 * n * d + 2 * n + blockIndex, 3 * n * n + (c + n * r));
+                }
+            }
+        }
+        return builder.build();
+    }
+}
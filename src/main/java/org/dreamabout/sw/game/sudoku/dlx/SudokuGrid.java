@@ -2,9 +2,9 @@ package org.dreamabout.sw.game.sudoku.dlx;
 
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.dreamabout.sw.game.sudoku.io.GridFormat;
 
-import static org.dreamabout.sw.game.sudoku.dlx.Constant.N;
-import static org.dreamabout.sw.game.sudoku.dlx.Constant.SIZE;
+import java.io.PrintStream;
 
 @Data
 @RequiredArgsConstructor
@@ -14,42 +14,38 @@ public class SudokuGrid {
      * not yet been revealed are stored as 0. */
     private final int[][] grid;
 
+    /* The number of rows, columns, blocks and digits of the grid: 9 for a standard Sudoku, 16 or 25 for the
+     * larger variants. The size is a property of every puzzle, Constant.N is only the standard one. */
+    public int getN() {
+        return grid.length;
+    }
+
+    /* The size parameter of the grid, i.e. the width and height of a block: 3 for a standard Sudoku. */
+    public int getSize() {
+        return boxSize(grid.length);
+    }
+
+    /* The size parameter of a grid with n rows. Only square grids made of square blocks are valid Sudoku
+     * puzzles, so n has to be a perfect square. */
+    public static int boxSize(int n) {
+        int size = (int) Math.round(Math.sqrt(n));
+        if (n < 1 || size * size != n) {
+            throw new IllegalArgumentException("Unsupported grid size: %dx%d, the side must be a perfect square".formatted(n, n));
+        }
+        return size;
+    }
+
     /* The print() function outputs the Sudoku grid to the standard output, using
      * a bit of extra formatting to make the result clearly readable. */
     public void print() {
-        // Compute the number of digits necessary to print out each number in the Sudoku puzzle
-        int digits = (int) Math.floor(Math.log(N) / Math.log(10)) + 1;
-
-        // Create a dashed line to separate the boxes
-        int lineLength = (digits + 1) * N + 2 * SIZE - 3;
-        var line = new StringBuilder();
-        for (int lineInit = 0; lineInit < lineLength; lineInit++)
-            line.append('-');
-
-        // Go through the Grid, printing out its values separated by spaces
-        for (int i = 0; i < N; i++) {
-            for (int j = 0; j < N; j++) {
-                printFixedWidth(String.valueOf(grid[i][j]), digits);
-                // Print the vertical lines between boxes
-                if ((j < N - 1) && ((j + 1) % SIZE == 0))
-                    System.out.print(" |");
-                System.out.print(" ");
-            }
-            System.out.println();
-
-            // Print the horizontal line between boxes
-            if ((i < N - 1) && ((i + 1) % SIZE == 0))
-                System.out.println(line.toString());
-        }
+        print(System.out);
     }
 
-    /* Helper function for the printing of Sudoku puzzle.  This function will print
-     * out text, preceded by enough ' ' characters to make sure that the printint out
-     * takes at least width characters.  */
-    void printFixedWidth(String text, int width) {
-        for (int i = 0; i < width - text.length(); i++)
-            System.out.print(" ");
-        System.out.print(text);
+    /* Prints the grid in the GridFormat.PRETTY layout. The whole grid is formatted into one buffer first and
+     * written with a single call, instead of one synchronized print per cell and per padding space. */
+    public void print(PrintStream out) {
+        var bytes = new byte[GridFormat.PRETTY.maxBytes(getN())];
+        out.write(bytes, 0, GridFormat.PRETTY.encode(grid, bytes, 0));
+        out.flush();
     }
-
 }
@@ -5,8 +5,16 @@ package org.dreamabout.sw.game.sudoku.dlx;
 import com.github.rvesse.airline.SingleCommand;
 import com.github.rvesse.airline.annotations.Command;
 import com.github.rvesse.airline.annotations.Option;
+import lombok.Setter;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzleReader;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzles;
+import org.dreamabout.sw.game.sudoku.io.PuzzleLines;
+import org.dreamabout.sw.game.sudoku.propagation.PropagatingEngine;
+import org.dreamabout.sw.game.sudoku.propagation.PropagationResult;
 
 import java.io.*;
+import java.time.Duration;
+import java.util.Arrays;
 
 // DOCUMENTATION -- ALGORITHM X, EXACT COVER PROBLEM AND DANCING LINKS IMPLEMENTATION
 
@@ -63,6 +71,34 @@ public class SudokuSolver {
     @Option(name = {"-f", "--file"}, description = "Path to the Sudoku puzzle file")
     private String sudokuFilePath;
 
+    @Setter
+    @Option(name = {"-e", "--engine"}, description = "Solver engine to use: DLX_OBJECT (default), DLX_ARRAY, DLX_PARALLEL, DLX_PORTFOLIO or BITBOARD")
+    private EngineType engine = EngineType.DLX_OBJECT;
+
+    @Setter
+    @Option(name = {"-m", "--max-solutions"}, description = "Stop searching after this many solutions, 2 checks whether the solution is unique (default 1)")
+    private int maxSolutions = 1;
+
+    @Setter
+    @Option(name = {"-p", "--propagate"}, description = "Fill in naked singles, hidden singles and locked candidates before the engine runs")
+    private boolean propagate;
+
+    @Setter
+    @Option(name = {"--time-limit"}, description = "Give up after this many milliseconds (DLX_ARRAY, DLX_PARALLEL and DLX_PORTFOLIO only)")
+    private long timeLimitMillis;
+
+    @Setter
+    @Option(name = {"--max-nodes"}, description = "Give up after visiting this many search nodes (DLX_ARRAY, DLX_PARALLEL and DLX_PORTFOLIO only)")
+    private long maxNodes;
+
+    @Setter
+    @Option(name = {"--count"}, description = "Only count the solutions, without keeping any of them (uses DLX_ARRAY)")
+    private boolean count;
+
+    @Setter
+    @Option(name = {"--index"}, description = "Puzzle to solve from a packed binary puzzle file, counted from 0 (default 0)")
+    private long puzzleIndex;
+
     private SudokuGrid grid;
 
     /**
@@ -77,6 +113,11 @@ public class SudokuSolver {
         var resultParser = argsParser.parseWithResult(args);
         if (resultParser.wasSuccessful()) {
             var cmd = resultParser.getCommand();
+            var error = cmd.optionError();
+            if (error != null) {
+                System.err.println(error);
+                return;
+            }
             cmd.initializeGrid();
             cmd.solve();
         } else {
@@ -92,33 +133,122 @@ public class SudokuSolver {
         if (!sudokuFile.exists()) {
             throw new IllegalArgumentException("File: %s does not exist".formatted(sudokuFilePath));
         }
+        if (BinaryPuzzles.isBinary(sudokuFile.toPath())) {
+            try (var reader = BinaryPuzzleReader.open(sudokuFile.toPath())) {
+                var cells = new int[reader.gridSize()][reader.gridSize()];
+                reader.read(puzzleIndex, cells);
+                grid = new SudokuGrid(cells);
+            }
+            return;
+        }
         var is = sudokuFile.toURI().toURL().openStream();
         loadSudokuFromStream(is);
     }
 
     public void solve() {
-        AlgorithmXSolver solver = new AlgorithmXSolver(grid.getGrid());
+        if (count) {
+            countSolutions();
+            return;
+        }
         var startTime = System.nanoTime();
-        solver.run();
+        var solver = propagate ? new PropagatingEngine(engine.create()) : engine.create();
+        var result = solver.solve(grid, maxSolutions, budget());
         var endTime = System.nanoTime() - startTime;
         System.out.println("Time taken to solve the Sudoku puzzle: " + endTime / 1000000 + " ms");
+        if (!result.statistics().equals(SearchStatistics.NONE)) {
+            System.out.println("Search: " + result.statistics().format());
+        }
+        if (solver instanceof PropagatingEngine propagatingEngine) {
+            var propagation = propagatingEngine.getLastPropagation();
+            System.out.printf("Propagation: %d naked singles, %d hidden singles, %d candidates removed by locked candidates (%s)%n",
+                    propagation.nakedSingles(), propagation.hiddenSingles(), propagation.lockedCandidates(),
+                    propagation.status() == PropagationResult.Status.SOLVED ? "solved without search" : "search needed");
+        }
+        if (result.isExhausted()) {
+            System.out.printf("Search budget exhausted (%s) after %d nodes, %d solutions found%n",
+                    result.exhaustion(), result.nodes(), result.solutionCount());
+        }
+        if (!result.isSolved()) {
+            System.out.println(result.isExhausted() ? "No solution found" : "The Sudoku puzzle has no solution");
+            return;
+        }
+        if (maxSolutions > 1) {
+            System.out.println(result.isUnique()
+                    ? "The solution is unique"
+                    : "Found %d solutions%s".formatted(result.solutionCount(), result.limitReached() ? " (limit reached)" : ""));
+        }
+        // the first solution found is the one shown
+        int[][] solved = result.solution();
+        for (int r = 0; r < solved.length; r++) {
+            System.arraycopy(solved[r], 0, grid.getGrid()[r], 0, solved[r].length);
+        }
         grid.print();
     }
 
+    // counts in constant memory, however many solutions there are
+    private void countSolutions() {
+        var result = new ArrayDlxSolver().count(grid.getGrid(), budget());
+        System.out.println("Search: " + result.statistics().format());
+        if (result.isExact()) {
+            System.out.printf("The Sudoku puzzle has %d solutions%n", result.count());
+        } else {
+            System.out.printf("Search budget exhausted (%s), at least %d solutions%n", result.exhaustion(), result.count());
+        }
+    }
+
+    // the options the parser cannot check on their own, or null if they are fine. A time or node limit needs an
+    // engine that can stop in the middle of a search, --count always uses DLX_ARRAY
+    private String optionError() {
+        if (maxSolutions < 1) {
+            return "--max-solutions must be at least 1, was: " + maxSolutions;
+        }
+        if (count || budget().isUnlimited() || engine.isBudgeted()) {
+            return null;
+        }
+        return "The %s engine does not support --time-limit or --max-nodes, use DLX_ARRAY, DLX_PARALLEL or DLX_PORTFOLIO"
+                .formatted(engine);
+    }
+
+    private SearchBudget budget() {
+        var budget = SearchBudget.UNLIMITED;
+        if (timeLimitMillis > 0) {
+            budget = budget.withTimeLimit(Duration.ofMillis(timeLimitMillis));
+        }
+        if (maxNodes > 0) {
+            budget = budget.withMaxNodes(maxNodes);
+        }
+        return budget;
+    }
+
     /**
      * Load the Sudoku puzzle from the given input stream.
-     * The input stream has the following format:
-     * 9 rows of 9 numbers (0-9)
+     * The input stream has one line per row, N rows of N cells, where N is 9, 16, 25, ...
+     * A row is either written with one character per cell (0 or '.' for an empty cell, 1-9 and A-Z for 10 and above)
+     * or as numbers separated by whitespace, which is needed for grids larger than 35x35.
+     * The size of the grid is taken from the first row.
      */
     public void loadSudokuFromStream(InputStream sudokuInputStream) {
         try (var reader = new InputStreamReader(sudokuInputStream)) {
             var bufferedReader = new BufferedReader(reader);
-            var sudoku = new int[9][9];
-            for (int i = 0; i < 9; i++) {
-                var line = bufferedReader.readLine();
-                var numbers = line.split("");
-                for (int j = 0; j < 9; j++) {
-                    sudoku[i][j] = Integer.parseInt(numbers[j]);
+            var lines = bufferedReader.lines().map(String::strip).filter(line -> !line.isEmpty()).toList();
+            if (lines.isEmpty()) {
+                throw new IllegalArgumentException("The Sudoku puzzle is empty");
+            }
+            int n = parseRow(lines.getFirst()).length;
+            SudokuGrid.boxSize(n);
+            if (lines.size() < n) {
+                throw new IllegalArgumentException("Expected %d rows but got %d".formatted(n, lines.size()));
+            }
+            var sudoku = new int[n][];
+            for (int i = 0; i < n; i++) {
+                sudoku[i] = parseRow(lines.get(i));
+                if (sudoku[i].length != n) {
+                    throw new IllegalArgumentException("Expected %d cells in row %d but got %d".formatted(n, i + 1, sudoku[i].length));
+                }
+                for (int value : sudoku[i]) {
+                    if (value < 0 || value > n) {
+                        throw new IllegalArgumentException("Invalid value %d in row %d".formatted(value, i + 1));
+                    }
                 }
             }
             grid = new SudokuGrid(sudoku);
@@ -127,6 +257,17 @@ public class SudokuSolver {
         }
     }
 
+    private static int[] parseRow(String line) {
+        if (line.chars().anyMatch(Character::isWhitespace)) {
+            return Arrays.stream(line.split("\\s+")).mapToInt(cell -> cell.equals(".") ? 0 : Integer.parseInt(cell)).toArray();
+        }
+        var row = new int[line.length()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = PuzzleLines.parseCell(line.charAt(i), PuzzleLines.MAX_VALUE);
+        }
+        return row;
+    }
+
     public int[][] getGridArray() {
         return grid.getGrid();
     }
@@ -0,0 +1,170 @@
+package org.dreamabout.sw.game.sudoku.generator;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import lombok.Setter;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzleWriter;
+import org.dreamabout.sw.game.sudoku.io.GridFormat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.dreamabout.sw.game.sudoku.dlx.Constant.N;
+
+/**
+ * Generates a file of puzzles that each have exactly one solution, in the one-puzzle-per-line format or, with
+ * --binary, in the packed BinaryPuzzles format. The puzzles are generated in chunks on a pool of worker threads;
+ * every worker keeps its own PuzzleGenerator, and every chunk gets its own random generator, split off a master
+ * generator in chunk order, so the same --seed always gives the same file, no matter how many threads run.
+ * The chunks are written in order as they are done, with at most a few per thread in flight, so memory stays
+ * constant no matter how many puzzles are generated.
+ */
+@Command(name = "sudoku-generate", description = "Generates Sudoku puzzles with a unique solution")
+public class BatchGenerator {
+
+    @Setter
+    @Option(name = {"-o", "--output"}, description = "Path to the file the puzzles are written to, one puzzle per line")
+    private String outputPath;
+
+    @Setter
+    @Option(name = {"-c", "--count"}, description = "Number of puzzles to generate (default 1000)")
+    private long count = 1000;
+
+    @Setter
+    @Option(name = {"-n", "--grid-size"}, description = "Number of rows of every puzzle: 9 (default), 16, 25, ...")
+    private int gridSize = N;
+
+    @Setter
+    @Option(name = {"--clues"}, description = "Stop taking clues away at this many clues (default: take away as many as possible)")
+    private int minClues;
+
+    @Setter
+    @Option(name = {"-s", "--symmetry"}, description = "Symmetry of the clues: NONE (default), ROTATIONAL, MIRROR or DIAGONAL")
+    private Symmetry symmetry = Symmetry.NONE;
+
+    @Setter
+    @Option(name = {"-t", "--threads"}, description = "Number of worker threads (default: number of cores)")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Setter
+    @Option(name = {"--chunk-size"}, description = "Number of puzzles generated by a worker at once (default 64)")
+    private int chunkSize = 64;
+
+    @Setter
+    @Option(name = {"--seed"}, description = "Seed of the random generator, for a reproducible file (default: random)")
+    private Long seed;
+
+    @Setter
+    @Option(name = {"--binary"}, description = "Write the puzzles in the packed binary format")
+    private boolean binary;
+
+    public static void main(String[] args) throws Exception {
+        var argsParser = SingleCommand.singleCommand(BatchGenerator.class);
+        var resultParser = argsParser.parseWithResult(args);
+        if (resultParser.wasSuccessful()) {
+            System.out.print(resultParser.getCommand().run().format());
+        } else {
+            System.err.println(resultParser.getErrors());
+        }
+    }
+
+    /* Generates the puzzles into the output file. */
+    public GenerationSummary run() throws IOException {
+        if (outputPath == null) {
+            throw new IllegalArgumentException("The output file is required");
+        }
+        // fails early for an invalid grid size or number of clues, instead of on every worker
+        new PuzzleGenerator(gridSize, symmetry, minClues);
+        var output = Path.of(outputPath);
+        if (binary) {
+            try (var writer = BinaryPuzzleWriter.create(output, gridSize)) {
+                return generate(GridFormat.BINARY, chunk -> writer.writeRecords(chunk.bytes(), 0, chunk.puzzles()));
+            }
+        }
+        try (var writer = Files.newOutputStream(output)) {
+            return generate(GridFormat.LINE, chunk -> writer.write(chunk.bytes(), 0, chunk.length()));
+        }
+    }
+
+    private GenerationSummary generate(GridFormat format, ChunkWriter output) throws IOException {
+        var master = seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+        // the buffers of the chunks that have been written, reused for the next chunks
+        Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+        var startTime = System.nanoTime();
+        Deque<Future<GeneratedChunk>> inFlight = new ArrayDeque<>();
+        int maxInFlight = 4 * threads; // enough to keep every worker busy while the oldest chunk is being written
+        var generators = ThreadLocal.withInitial(() -> new PuzzleGenerator(gridSize, symmetry, minClues));
+        long puzzles = 0;
+        long clues = 0;
+        long searches = 0;
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            for (long first = 0; first < count || !inFlight.isEmpty(); ) {
+                if (first < count && inFlight.size() < maxInFlight) {
+                    int size = (int) Math.min(chunkSize, count - first);
+                    var random = master.split();
+                    inFlight.add(pool.submit(() -> generateChunk(generators.get(), random, size, format, buffers.poll())));
+                    first += size;
+                    continue;
+                }
+                // the writer only ever waits for the oldest chunk, so the file keeps the chunk order
+                var chunk = await(inFlight.removeFirst());
+                output.write(chunk);
+                buffers.add(chunk.bytes());
+                puzzles += chunk.puzzles();
+                clues += chunk.clues();
+                searches += chunk.searches();
+            }
+        }
+        return new GenerationSummary(puzzles, clues, searches, System.nanoTime() - startTime);
+    }
+
+    // generates the puzzles of a chunk and encodes them on the worker, into the buffer of a chunk that has already
+    // been written if there is one
+    private GeneratedChunk generateChunk(PuzzleGenerator generator, SplittableRandom random, int size, GridFormat format,
+                                         byte[] buffer) {
+        int maxBytes = format.maxBytes(gridSize);
+        var bytes = buffer != null && buffer.length >= size * maxBytes ? buffer : new byte[size * maxBytes];
+        int length = 0;
+        long clues = 0;
+        long searches = generator.searches();
+        var puzzle = new int[gridSize][gridSize];
+        for (int i = 0; i < size; i++) {
+            clues += generator.generate(random, puzzle);
+            length += format.encode(puzzle, bytes, length);
+        }
+        return new GeneratedChunk(bytes, length, size, clues, generator.searches() - searches);
+    }
+
+    private static GeneratedChunk await(Future<GeneratedChunk> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // the puzzles of a chunk, encoded in the first length bytes
+    private record GeneratedChunk(byte[] bytes, int length, int puzzles, long clues, long searches) {
+    }
+
+    private interface ChunkWriter {
+        void write(GeneratedChunk chunk) throws IOException;
+    }
+}
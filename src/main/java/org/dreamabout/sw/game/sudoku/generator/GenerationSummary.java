@@ -0,0 +1,27 @@
+package org.dreamabout.sw.game.sudoku.generator;
+
+import java.util.concurrent.TimeUnit;
+
+/* Totals of a generator run: how many puzzles were written, how many clues they have together, how many searches
+ * the uniqueness checks ran and the wall-clock time of the whole run. */
+public record GenerationSummary(long puzzles, long clues, long searches, long elapsedNanos) {
+
+    public double averageClues() {
+        return puzzles == 0 ? 0 : clues / (double) puzzles;
+    }
+
+    public double puzzlesPerSecond() {
+        return elapsedNanos == 0 ? 0 : puzzles * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public String format() {
+        return """
+                Puzzles:     %d
+                Clues:       %.1f on average
+                Searches:    %d
+                Elapsed:     %d ms
+                Throughput:  %.0f puzzles/sec
+                """.formatted(puzzles, averageClues(), searches, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                puzzlesPerSecond());
+    }
+}
@@ -0,0 +1,142 @@
+package org.dreamabout.sw.game.sudoku.generator;
+
+import org.dreamabout.sw.game.sudoku.dlx.SolvingSession;
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/* Generates puzzles with exactly one solution. A full grid is made by filling the blocks on the diagonal with
+ * random permutations, they share no row, column or block, and letting the solver complete the rest. Then the
+ * clues are taken away in a random order, a cell or a pair of symmetric cells at a time, and put back whenever the
+ * puzzle stops being unique, until no clue can be taken away any more or the minimum number of clues is reached.
+ *
+ * All the checks run on one SolvingSession that lives as long as the generator, so a check only uncovers the
+ * columns of the removed clues and searches for at most two solutions, instead of building the whole matrix for
+ * every candidate. The clues are pushed in the reverse of the order they are removed in, so the clue that is
+ * removed next is almost always the last one pushed and removing it is a single pop.
+ *
+ * Instances are reusable, but not thread safe; every thread keeps its own together with its own random generator. */
+public class PuzzleGenerator {
+
+    private final int n;
+    private final int size;
+    private final Symmetry symmetry;
+    private final int minClues;
+    private final SolvingSession session;
+    // all the cells, shuffled for every puzzle, and the first cell of every pair of partners in removal order
+    private final int[] cells;
+    private final int[] removals;
+    private final boolean[] taken;
+    private final int[] digits;
+
+    public PuzzleGenerator(int n, Symmetry symmetry, int minClues) {
+        this.size = SudokuGrid.boxSize(n);
+        if (minClues < 0 || minClues > n * n) {
+            throw new IllegalArgumentException("Invalid number of clues %d, must be between 0 and %d".formatted(minClues, n * n));
+        }
+        this.n = n;
+        this.symmetry = symmetry;
+        this.minClues = minClues;
+        this.session = new SolvingSession(n);
+        this.cells = new int[n * n];
+        this.removals = new int[n * n];
+        this.taken = new boolean[n * n];
+        this.digits = new int[n];
+    }
+
+    /* Writes a new puzzle with a unique solution into the grid and returns its number of clues. It has at least the
+     * minimum number of clues, more if every further clue that could be taken away would leave it ambiguous. */
+    public int generate(RandomGenerator random, int[][] puzzle) {
+        var solution = fullGrid(random);
+        int count = removalOrder(random);
+        // the pairs are pushed last to first, so the first one to be removed is on top
+        session.clear();
+        for (int i = count - 1; i >= 0; i--) {
+            int cell = removals[i];
+            int partner = partner(cell);
+            session.place(cell / n, cell % n, solution[cell / n][cell % n]);
+            if (partner != cell) {
+                session.place(partner / n, partner % n, solution[partner / n][partner % n]);
+            }
+        }
+        int clues = n * n;
+        for (int i = 0; i < count; i++) {
+            int cell = removals[i];
+            int partner = partner(cell);
+            int removed = partner == cell ? 1 : 2;
+            if (clues - removed < minClues) {
+                continue;
+            }
+            session.remove(partner / n, partner % n);
+            session.remove(cell / n, cell % n);
+            if (session.isUnique()) {
+                clues -= removed;
+            } else {
+                session.place(cell / n, cell % n, solution[cell / n][cell % n]);
+                session.place(partner / n, partner % n, solution[partner / n][partner % n]);
+            }
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                puzzle[r][c] = session.get(r, c);
+            }
+        }
+        return clues;
+    }
+
+    /* The number of searches for solutions run so far; the uniqueness checks that needed none are not counted. */
+    public long searches() {
+        return session.searches();
+    }
+
+    private int[][] fullGrid(RandomGenerator random) {
+        int[][] grid;
+        do {
+            session.clear();
+            for (int box = 0; box < size; box++) {
+                for (int i = 0; i < n; i++) {
+                    digits[i] = i + 1;
+                }
+                shuffle(digits, random);
+                for (int i = 0; i < n; i++) {
+                    session.place(box * size + i / size, box * size + i % size, digits[i]);
+                }
+            }
+            grid = session.solution();
+        } while (grid == null);
+        return grid;
+    }
+
+    // the cells in a random order, only the first cell of every pair of partners is kept; returns how many.
+    // The arrays start over for every puzzle, so a puzzle only depends on the random generator.
+    private int removalOrder(RandomGenerator random) {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+        shuffle(cells, random);
+        Arrays.fill(taken, false);
+        int count = 0;
+        for (int cell : cells) {
+            if (!taken[cell]) {
+                taken[cell] = true;
+                taken[partner(cell)] = true;
+                removals[count++] = cell;
+            }
+        }
+        return count;
+    }
+
+    private int partner(int cell) {
+        return symmetry.partner(cell / n, cell % n, n);
+    }
+
+    private static void shuffle(int[] values, RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.dreamabout.sw.game.sudoku.generator;
+
+/* The symmetries the clues of a generated puzzle can keep: a cell is only emptied together with its partner, so
+ * the pattern of the clues looks the same after the transformation. */
+public enum Symmetry {
+
+    /* Every cell on its own. */
+    NONE {
+        @Override
+        public int partner(int row, int column, int n) {
+            return row * n + column;
+        }
+    },
+
+    /* Turned by half a turn around the center of the grid. */
+    ROTATIONAL {
+        @Override
+        public int partner(int row, int column, int n) {
+            return (n - 1 - row) * n + n - 1 - column;
+        }
+    },
+
+    /* Mirrored at the vertical center line. */
+    MIRROR {
+        @Override
+        public int partner(int row, int column, int n) {
+            return row * n + n - 1 - column;
+        }
+    },
+
+    /* Mirrored at the main diagonal. */
+    DIAGONAL {
+        @Override
+        public int partner(int row, int column, int n) {
+            return column * n + row;
+        }
+    };
+
+    /* The cell, row * n + column, that holds a clue exactly when the given cell does; the cell itself if it is
+     * its own partner. */
+    public abstract int partner(int row, int column, int n);
+}
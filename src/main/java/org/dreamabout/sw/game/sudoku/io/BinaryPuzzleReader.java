@@ -0,0 +1,116 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads files in the packed BinaryPuzzles format through memory mapped regions. All the records have the same
+ * size, so any puzzle can be read by its index without looking at the others, and the file can be split into
+ * chunks of whole records that different worker threads read at the same time. A single mapping is limited to
+ * 2 GB, so larger files are mapped as several regions of whole records.
+ */
+public final class BinaryPuzzleReader implements AutoCloseable {
+
+    // kept well below the 2 GB limit of a single mapping, like MappedPuzzleReader
+    private static final long MAX_REGION_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final int n;
+    private final long count;
+    private final int recordBytes;
+    private final long recordsPerRegion;
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+
+    private BinaryPuzzleReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        var header = BinaryPuzzles.readHeader(channel);
+        this.n = header.gridSize();
+        this.count = header.count();
+        this.recordBytes = BinaryPuzzles.recordBytes(n);
+        long expectedSize = BinaryPuzzles.HEADER_BYTES + count * recordBytes;
+        if (count < 0 || channel.size() < expectedSize) {
+            throw new IllegalArgumentException("The file is truncated, the header announces %d puzzles of %d bytes but it has %d bytes"
+                    .formatted(count, recordBytes, channel.size()));
+        }
+        this.recordsPerRegion = Math.max(1, MAX_REGION_BYTES / recordBytes);
+        for (long first = 0; first < count; first += recordsPerRegion) {
+            long records = Math.min(recordsPerRegion, count - first);
+            regions.add(channel.map(FileChannel.MapMode.READ_ONLY, BinaryPuzzles.HEADER_BYTES + first * recordBytes, records * recordBytes));
+        }
+    }
+
+    public static BinaryPuzzleReader open(Path path) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new BinaryPuzzleReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /* The number of rows of every grid in the file. */
+    public int gridSize() {
+        return n;
+    }
+
+    /* The number of puzzles in the file. */
+    public long count() {
+        return count;
+    }
+
+    /* Decodes puzzle number index, counted from 0, into the grid. Can be called from several threads at once. */
+    public void read(long index, int[][] grid) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Puzzle %d of %d".formatted(index, count));
+        }
+        if (grid.length != n) {
+            throw new IllegalArgumentException("The file holds %dx%d puzzles, not %dx%d".formatted(n, n, grid.length, grid.length));
+        }
+        var region = regions.get((int) (index / recordsPerRegion));
+        BinaryPuzzles.decode(region, (int) (index % recordsPerRegion) * recordBytes, grid);
+    }
+
+    /* Cuts the file into chunks of at most puzzlesPerChunk puzzles, in file order; every one of them can be read
+     * by a different thread. */
+    public List<PuzzleSource> split(int puzzlesPerChunk) {
+        if (puzzlesPerChunk < 1) {
+            throw new IllegalArgumentException("puzzlesPerChunk must be positive, was: " + puzzlesPerChunk);
+        }
+        var chunks = new ArrayList<PuzzleSource>();
+        for (long first = 0; first < count; first += puzzlesPerChunk) {
+            chunks.add(range(first, Math.min(first + puzzlesPerChunk, count)));
+        }
+        return chunks;
+    }
+
+    /* A cursor over all the puzzles of the file, for a single reader. */
+    public PuzzleSource all() {
+        return range(0, count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private PuzzleSource range(long first, long end) {
+        return new PuzzleSource() {
+            private long next = first;
+
+            @Override
+            public boolean next(int[][] grid) {
+                if (next == end) {
+                    return false;
+                }
+                read(next++, grid);
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes files in the packed BinaryPuzzles format. The records are collected in a buffer and written to the
+ * channel in large blocks; the number of puzzles is only known at the end, so the header is written with a count
+ * of 0 first and completed by close(). Not thread safe.
+ */
+public final class BinaryPuzzleWriter implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final int n;
+    private final int recordBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final byte[] record;
+    private long count;
+
+    private BinaryPuzzleWriter(FileChannel channel, int n) throws IOException {
+        this.channel = channel;
+        this.n = n;
+        this.recordBytes = BinaryPuzzles.recordBytes(n);
+        this.record = new byte[recordBytes];
+        writeFully(BinaryPuzzles.header(n, 0), 0);
+        channel.position(BinaryPuzzles.HEADER_BYTES);
+    }
+
+    /* Creates or overwrites the file, for puzzles with n rows. */
+    public static BinaryPuzzleWriter create(Path path, int n) throws IOException {
+        if (PuzzleLines.gridSizeOf(n * n) != n) {
+            throw new IllegalArgumentException("Unsupported grid size: %dx%d".formatted(n, n));
+        }
+        return new BinaryPuzzleWriter(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), n);
+    }
+
+    public int gridSize() {
+        return n;
+    }
+
+    public void write(int[][] grid) throws IOException {
+        if (grid.length != n) {
+            throw new IllegalArgumentException("The file holds %dx%d puzzles, not %dx%d".formatted(n, n, grid.length, grid.length));
+        }
+        BinaryPuzzles.encode(grid, record, 0);
+        writeRecords(record, 0, 1);
+    }
+
+    /* Appends puzzles that are already encoded, recordBytes(n) bytes each, starting at offset. Lets several
+     * threads encode their puzzles while a single one writes them. */
+    public void writeRecords(byte[] records, int offset, int puzzles) throws IOException {
+        int length = puzzles * recordBytes;
+        int written = 0;
+        while (written < length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int bytes = Math.min(buffer.remaining(), length - written);
+            buffer.put(records, offset + written, bytes);
+            written += bytes;
+        }
+        count += puzzles;
+    }
+
+    /* The number of puzzles written so far. */
+    public long count() {
+        return count;
+    }
+
+    /* Writes the rest of the records and the final count into the header. */
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            flush();
+            writeFully(ByteBuffer.allocate(Long.BYTES).putLong(count).flip(), BinaryPuzzles.COUNT_OFFSET);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining()) {
+            position += channel.write(bytes, position);
+        }
+    }
+}
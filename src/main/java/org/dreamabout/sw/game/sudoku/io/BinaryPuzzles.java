@@ -0,0 +1,126 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/* The packed binary format for puzzle and solution files. A 16 byte header - the magic "SDKP", the format version,
+ * the number of rows of the grids, the bits per cell, a reserved byte and the number of puzzles as a big endian
+ * long - followed by one fixed size record per puzzle. A record holds the cells row by row with as few bits per
+ * cell as the largest value needs, 4 for 9x9 and 5 for 16x16 and 25x25, packed from the lowest bit of every byte
+ * up; a 9x9 puzzle takes 41 bytes instead of the 82 of a text line. Because every record has the same size,
+ * puzzle i starts at byte HEADER_BYTES + i * recordBytes(n) and can be read without scanning the file. */
+@UtilityClass
+public class BinaryPuzzles {
+
+    public static final int HEADER_BYTES = 16;
+
+    static final int VERSION = 1;
+    static final int COUNT_OFFSET = 8;
+
+    private static final byte[] MAGIC = {'S', 'D', 'K', 'P'};
+
+    public static int bitsPerCell(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n);
+    }
+
+    public static int recordBytes(int n) {
+        return (n * n * bitsPerCell(n) + 7) / 8;
+    }
+
+    /* True if the file starts with the header of this format, false for a text file. */
+    public static boolean isBinary(Path path) throws IOException {
+        if (Files.size(path) < MAGIC.length) {
+            return false;
+        }
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var magic = ByteBuffer.allocate(MAGIC.length);
+            channel.read(magic, 0);
+            return ByteBuffer.wrap(MAGIC).equals(magic.flip());
+        }
+    }
+
+    /* Packs the grid into recordBytes(n) bytes of the record, starting at offset. */
+    public static void encode(int[][] grid, byte[] record, int offset) {
+        int n = grid.length;
+        int bits = bitsPerCell(n);
+        long buffer = 0;
+        int filled = 0;
+        int position = offset;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int value = grid[r][c];
+                if (value < 0 || value > n) {
+                    throw new IllegalArgumentException("Invalid value %d at row %d, column %d".formatted(value, r, c));
+                }
+                buffer |= (long) value << filled;
+                filled += bits;
+                while (filled >= 8) {
+                    record[position++] = (byte) buffer;
+                    buffer >>>= 8;
+                    filled -= 8;
+                }
+            }
+        }
+        if (filled > 0) {
+            record[position] = (byte) buffer;
+        }
+    }
+
+    /* Unpacks the record starting at the absolute offset of the buffer into the grid, whose size must be the size
+     * of the grids of the file. */
+    public static void decode(ByteBuffer bytes, int offset, int[][] grid) {
+        int n = grid.length;
+        int bits = bitsPerCell(n);
+        int mask = (1 << bits) - 1;
+        long buffer = 0;
+        int filled = 0;
+        int position = offset;
+        for (int i = 0; i < n * n; i++) {
+            while (filled < bits) {
+                buffer |= (long) (bytes.get(position++) & 0xFF) << filled;
+                filled += 8;
+            }
+            int value = (int) (buffer & mask);
+            if (value > n) {
+                throw new IllegalArgumentException("Invalid value %d in cell %d of the record at byte %d".formatted(value, i, offset));
+            }
+            grid[i / n][i % n] = value;
+            buffer >>>= bits;
+            filled -= bits;
+        }
+    }
+
+    static ByteBuffer header(int n, long count) {
+        var header = ByteBuffer.allocate(HEADER_BYTES);
+        header.put(MAGIC).put((byte) VERSION).put((byte) n).put((byte) bitsPerCell(n)).put((byte) 0).putLong(count);
+        return header.flip();
+    }
+
+    /* Reads and checks the header at the start of the file. */
+    static Header readHeader(FileChannel channel) throws IOException {
+        var header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // keep reading until the header is complete or the file ends
+        }
+        if (header.hasRemaining() || !ByteBuffer.wrap(MAGIC).equals(header.slice(0, MAGIC.length))) {
+            throw new IllegalArgumentException("Not a binary puzzle file");
+        }
+        if (header.get(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary puzzle format version " + header.get(4));
+        }
+        int n = header.get(5) & 0xFF;
+        if (PuzzleLines.gridSizeOf(n * n) != n || header.get(6) != bitsPerCell(n)) {
+            throw new IllegalArgumentException("Invalid grid size %d with %d bits per cell".formatted(n, header.get(6)));
+        }
+        return new Header(n, header.getLong(COUNT_OFFSET));
+    }
+
+    record Header(int gridSize, long count) {
+    }
+}
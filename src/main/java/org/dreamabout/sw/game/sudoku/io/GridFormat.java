@@ -0,0 +1,116 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+
+import java.nio.charset.StandardCharsets;
+
+/* The ways a grid can be written out, each of them encoding straight into a byte array owned by the caller. The
+ * caller reserves maxBytes(n) bytes and gets back how many were used, so a single buffer can hold many grids and
+ * be written out in one call, instead of going through a Writer or a PrintStream for every cell. */
+public enum GridFormat {
+
+    /* The one-puzzle-per-line text format of PuzzleLines, followed by the line separator. */
+    LINE {
+        @Override
+        public int maxBytes(int n) {
+            return PuzzleLines.lineLength(n) + NEW_LINE.length;
+        }
+
+        @Override
+        public int encode(int[][] grid, byte[] out, int offset) {
+            int position = offset;
+            for (int[] row : grid) {
+                for (int value : row) {
+                    out[position++] = (byte) PuzzleLines.formatCell(value);
+                }
+            }
+            return newLine(out, position) - offset;
+        }
+    },
+
+    /* The grid as printed by SudokuGrid.print(): right aligned numbers, blocks separated by '|' and dashed lines. */
+    PRETTY {
+        @Override
+        public int maxBytes(int n) {
+            int size = SudokuGrid.boxSize(n);
+            return n * (rowWidth(n) + NEW_LINE.length) + (size - 1) * (dashedLineWidth(n) + NEW_LINE.length);
+        }
+
+        @Override
+        public int encode(int[][] grid, byte[] out, int offset) {
+            int n = grid.length;
+            int size = SudokuGrid.boxSize(n);
+            int digits = digits(n);
+            int position = offset;
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    // the number right aligned in its column
+                    int value = grid[i][j];
+                    for (int d = digits - 1; d >= 0; d--) {
+                        out[position + d] = value > 0 || d == digits - 1 ? (byte) ('0' + value % 10) : (byte) ' ';
+                        value /= 10;
+                    }
+                    position += digits;
+                    // the vertical lines between blocks
+                    if (j < n - 1 && (j + 1) % size == 0) {
+                        out[position++] = ' ';
+                        out[position++] = '|';
+                    }
+                    out[position++] = ' ';
+                }
+                position = newLine(out, position);
+                // the horizontal lines between blocks
+                if (i < n - 1 && (i + 1) % size == 0) {
+                    int width = dashedLineWidth(n);
+                    for (int k = 0; k < width; k++) {
+                        out[position++] = '-';
+                    }
+                    position = newLine(out, position);
+                }
+            }
+            return position - offset;
+        }
+    },
+
+    /* A record of the packed BinaryPuzzles format, without the file header. */
+    BINARY {
+        @Override
+        public int maxBytes(int n) {
+            return BinaryPuzzles.recordBytes(n);
+        }
+
+        @Override
+        public int encode(int[][] grid, byte[] out, int offset) {
+            BinaryPuzzles.encode(grid, out, offset);
+            return BinaryPuzzles.recordBytes(grid.length);
+        }
+    };
+
+    private static final byte[] NEW_LINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    /* The most bytes a grid with n rows takes in this format. */
+    public abstract int maxBytes(int n);
+
+    /* Encodes the grid into out starting at offset, which must have maxBytes(n) bytes left, and returns the
+     * number of bytes written. */
+    public abstract int encode(int[][] grid, byte[] out, int offset);
+
+    private static int newLine(byte[] out, int position) {
+        System.arraycopy(NEW_LINE, 0, out, position, NEW_LINE.length);
+        return position + NEW_LINE.length;
+    }
+
+    // the number of digits of the largest value
+    private static int digits(int n) {
+        return String.valueOf(n).length();
+    }
+
+    // every cell followed by a space, and " |" between blocks
+    private static int rowWidth(int n) {
+        return (digits(n) + 1) * n + 2 * (SudokuGrid.boxSize(n) - 1);
+    }
+
+    private static int dashedLineWidth(int n) {
+        return (digits(n) + 1) * n + 2 * SudokuGrid.boxSize(n) - 3;
+    }
+}
@@ -0,0 +1,62 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes many grids in one GridFormat to an OutputStream. Every grid is encoded straight into a reused byte
+ * buffer and the buffer goes to the stream in a single write once it is full, so writing a grid allocates nothing
+ * and a terminal or a file sees a few large writes instead of one per cell. Not thread safe.
+ */
+public final class GridWriter implements Flushable, AutoCloseable {
+
+    private static final int DEFAULT_BUFFER_BYTES = 1 << 16;
+
+    private final GridFormat format;
+    private final OutputStream out;
+    private byte[] buffer;
+    private int length;
+
+    public GridWriter(GridFormat format, OutputStream out) {
+        this(format, out, DEFAULT_BUFFER_BYTES);
+    }
+
+    public GridWriter(GridFormat format, OutputStream out, int bufferBytes) {
+        this.format = format;
+        this.out = out;
+        this.buffer = new byte[bufferBytes];
+    }
+
+    public void write(int[][] grid) throws IOException {
+        int maxBytes = format.maxBytes(grid.length);
+        if (buffer.length - length < maxBytes) {
+            writeBuffer();
+            if (buffer.length < maxBytes) {
+                buffer = new byte[maxBytes]; // a single grid larger than the buffer
+            }
+        }
+        length += format.encode(grid, buffer, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBuffer();
+        out.flush();
+    }
+
+    /* Writes what is left and closes the stream. */
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            writeBuffer();
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads files in the one-puzzle-per-line format through memory mapped regions instead of a Reader.
+ * The cells are decoded straight from the mapped bytes into the caller's grid, so no String or char[] is
+ * created for a line. The file is cut into chunks that start and end at line boundaries; every chunk has its
+ * own cursor, so several worker threads can each consume a different chunk at the same time.
+ * A single mapping is limited to 2 GB, so larger files are mapped as several regions, again split at line
+ * boundaries. Lines may end with '\n' or "\r\n" and blank lines are skipped. The size of the puzzles is the size
+ * of the grid they are decoded into, a file of 16x16 puzzles is read into 16x16 grids. A malformed line is
+ * reported with an IllegalArgumentException, after which the cursor goes on with the next line.
+ */
+public final class MappedPuzzleReader implements AutoCloseable {
+
+    // a region is mapped at once; kept well below the 2 GB limit of a single mapping so a region can always be
+    // extended to the end of its last line
+    private static final long MAX_REGION_BYTES = 1L << 30;
+
+    // the value of every byte as a cell of the largest grid, or -1 if the byte is never a valid cell
+    private static final byte[] CELL_VALUES = new byte[256];
+
+    static {
+        Arrays.fill(CELL_VALUES, (byte) -1);
+        for (int b = 0; b < 128; b++) {
+            CELL_VALUES[b] = (byte) PuzzleLines.cellValue((char) b, PuzzleLines.MAX_VALUE);
+        }
+    }
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    private final List<Long> regionOffsets = new ArrayList<>();
+
+    private MappedPuzzleReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        long start = 0;
+        while (start < size) {
+            long end = lineEndAfter(Math.min(start + MAX_REGION_BYTES, size));
+            regions.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+            regionOffsets.add(start);
+            start = end;
+        }
+    }
+
+    public static MappedPuzzleReader open(Path path) throws IOException {
+        return new MappedPuzzleReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /* Cuts the whole file into chunks of roughly chunkBytes bytes, each of them ending at a line boundary.
+     * The chunks are returned in file order and every one of them can be read by a different thread. */
+    public List<PuzzleCursor> split(int chunkBytes) {
+        if (chunkBytes < 1) {
+            throw new IllegalArgumentException("chunkBytes must be positive, was: " + chunkBytes);
+        }
+        var chunks = new ArrayList<PuzzleCursor>();
+        for (int i = 0; i < regions.size(); i++) {
+            var region = regions.get(i);
+            int start = 0;
+            while (start < region.limit()) {
+                int end = (int) Math.min((long) start + chunkBytes, region.limit());
+                // move the end forward to the byte after the next line break, or the end of the region
+                while (end < region.limit() && region.get(end - 1) != '\n') {
+                    end++;
+                }
+                chunks.add(new PuzzleCursor(region.slice(start, end - start), regionOffsets.get(i) + start));
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    /* Cuts the whole file into chunks of puzzlesPerChunk puzzles of n rows, the last one may have fewer, so the
+     * chunks of two files with the same number of puzzles line up, also with the chunks of a BinaryPuzzleReader.
+     * Only the line breaks are looked at: the end of a line is found by jumping over the cells, which are checked
+     * when the chunk is decoded. A malformed line still counts as one puzzle, the same one its cursor skips, so the
+     * chunks that follow stay lined up. A chunk that spans two regions reads the first one, then the second. */
+    public List<PuzzleSource> split(int puzzlesPerChunk, int n) {
+        if (puzzlesPerChunk < 1) {
+            throw new IllegalArgumentException("puzzlesPerChunk must be positive, was: " + puzzlesPerChunk);
+        }
+        int lineLength = PuzzleLines.lineLength(n);
+        var chunks = new ArrayList<PuzzleSource>();
+        var parts = new ArrayList<PuzzleCursor>();
+        int puzzles = 0;
+        for (int i = 0; i < regions.size(); i++) {
+            var region = regions.get(i);
+            int limit = region.limit();
+            int start = 0;
+            int position = 0;
+            while (true) {
+                while (position < limit && (region.get(position) == '\n' || region.get(position) == '\r')) {
+                    position++;
+                }
+                if (position == limit) {
+                    break;
+                }
+                position = recordEnd(region, position, lineLength);
+                if (++puzzles == puzzlesPerChunk) {
+                    parts.add(new PuzzleCursor(region.slice(start, position - start), regionOffsets.get(i) + start));
+                    chunks.add(chain(List.copyOf(parts)));
+                    parts.clear();
+                    puzzles = 0;
+                    start = position;
+                }
+            }
+            if (start < limit) {
+                parts.add(new PuzzleCursor(region.slice(start, limit - start), regionOffsets.get(i) + start));
+            }
+        }
+        if (puzzles > 0) {
+            chunks.add(chain(List.copyOf(parts)));
+        }
+        return chunks;
+    }
+
+    /* A cursor over all the puzzles of the file, for a single reader. */
+    public PuzzleSource all() {
+        return chain(split(Integer.MAX_VALUE));
+    }
+
+    // the puzzles of the cursors one after the other
+    private static PuzzleSource chain(List<PuzzleCursor> cursors) {
+        return new PuzzleSource() {
+            private int current = 0;
+
+            @Override
+            public boolean next(int[][] grid) {
+                while (current < cursors.size()) {
+                    if (cursors.get(current).next(grid)) {
+                        return true;
+                    }
+                    current++;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // the end of the record that starts at lineStart: right after its line break when that comes right after
+    // lineLength cells, as it does for every valid line, otherwise right after the first line break of the line.
+    // The split and the cursors both end a record here, so a malformed line is one record for both of them.
+    private static int recordEnd(ByteBuffer bytes, int lineStart, int lineLength) {
+        int limit = bytes.limit();
+        int position = Math.min(lineStart + lineLength, limit);
+        if (position < limit && bytes.get(position) == '\r') {
+            position++;
+        }
+        if (position == limit) {
+            return limit;
+        }
+        if (bytes.get(position) == '\n') {
+            return position + 1;
+        }
+        // the line is too long, or too short and the jump landed in the next line
+        position = lineStart;
+        while (position < limit && bytes.get(position) != '\n') {
+            position++;
+        }
+        return Math.min(position + 1, limit);
+    }
+
+    // the offset right after the first line break at or after the given offset, or the end of the file
+    private long lineEndAfter(long offset) throws IOException {
+        long size = channel.size();
+        if (offset >= size) {
+            return size;
+        }
+        var buffer = ByteBuffer.allocate(4096);
+        long position = Math.max(offset - 1, 0); // the line may already end right before the offset
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /* Decodes the puzzles of one chunk, one line at a time. A cursor is not thread safe, but different cursors
+     * of the same file can be used by different threads. */
+    public static final class PuzzleCursor implements PuzzleSource {
+
+        private final ByteBuffer bytes;
+        private final long fileOffset;
+        private int position;
+
+        private PuzzleCursor(ByteBuffer bytes, long fileOffset) {
+            this.bytes = bytes;
+            this.fileOffset = fileOffset;
+        }
+
+        /* Decodes the next puzzle into cells, one byte per cell in row order; 81 cells hold a 9x9 puzzle,
+         * 256 cells a 16x16 one. */
+        public boolean next(byte[] cells) {
+            int n = PuzzleLines.gridSizeOf(cells.length);
+            if (n < 0) {
+                throw new IllegalArgumentException("%d cells do not make a square grid".formatted(cells.length));
+            }
+            if (!skipBlankLines()) {
+                return false;
+            }
+            int start = position;
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = cellAt(start, i, n);
+            }
+            endLine(start, n);
+            return true;
+        }
+
+        @Override
+        public boolean next(int[][] grid) {
+            if (!skipBlankLines()) {
+                return false;
+            }
+            int n = grid.length;
+            int start = position;
+            // row by row, without a division per cell
+            int index = start;
+            for (int[] row : grid) {
+                for (int c = 0; c < n; c++) {
+                    row[c] = cellAt(start, index++ - start, n);
+                }
+            }
+            endLine(start, n);
+            return true;
+        }
+
+        private boolean skipBlankLines() {
+            int limit = bytes.limit();
+            while (position < limit && (bytes.get(position) == '\n' || bytes.get(position) == '\r')) {
+                position++;
+            }
+            return position < limit;
+        }
+
+        private byte cellAt(int lineStart, int i, int n) {
+            int index = lineStart + i;
+            byte value = index < bytes.limit() ? CELL_VALUES[bytes.get(index) & 0xFF] : -1;
+            if (value < 0 || value > n) {
+                throw skipInvalidLine(lineStart, n);
+            }
+            return value;
+        }
+
+        // moves past the end of the line, which must come right after the last cell
+        private void endLine(int lineStart, int n) {
+            position = lineStart + PuzzleLines.lineLength(n);
+            int limit = bytes.limit();
+            if (position < limit && bytes.get(position) == '\r') {
+                position++;
+            }
+            if (position < limit) {
+                if (bytes.get(position) != '\n') {
+                    throw skipInvalidLine(lineStart, n);
+                }
+                position++;
+            }
+        }
+
+        // moves past the invalid line, so the next call decodes the line after it
+        private IllegalArgumentException skipInvalidLine(int lineStart, int n) {
+            position = recordEnd(bytes, lineStart, PuzzleLines.lineLength(n));
+            return new IllegalArgumentException("Invalid puzzle line at byte offset %d, expected %d cells of '.' or 0-%s"
+                    .formatted(fileOffset + lineStart, PuzzleLines.lineLength(n), PuzzleLines.formatCell(n)));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.dreamabout.sw.game.sudoku.dlx.Constant.N;
+
+/**
+ * Converts puzzle files between the one-puzzle-per-line text format and the packed BinaryPuzzles format, in the
+ * direction given by the input: a binary file becomes a text file and the other way round. Both directions
+ * stream one puzzle at a time through a single reused grid, so files of any size are converted in constant memory.
+ */
+@Command(name = "sudoku-convert", description = "Converts a puzzle file between the text and the packed binary format")
+public class PuzzleConverter {
+
+    @Setter
+    @Option(name = {"-i", "--input"}, description = "Path to the puzzle file, text or binary")
+    private String inputPath;
+
+    @Setter
+    @Option(name = {"-o", "--output"}, description = "Path to the converted file")
+    private String outputPath;
+
+    @Setter
+    @Option(name = {"-n", "--grid-size"}, description = "Number of rows of every puzzle of a text file: 9 (default), 16, 25, ...")
+    private int gridSize = N;
+
+    public static void main(String[] args) throws Exception {
+        var argsParser = SingleCommand.singleCommand(PuzzleConverter.class);
+        var resultParser = argsParser.parseWithResult(args);
+        if (resultParser.wasSuccessful()) {
+            var cmd = resultParser.getCommand();
+            System.out.printf("Converted %d puzzles%n", cmd.run());
+        } else {
+            System.err.println(resultParser.getErrors());
+        }
+    }
+
+    /* Converts the input file and returns the number of puzzles. */
+    public long run() throws IOException {
+        if (inputPath == null || outputPath == null) {
+            throw new IllegalArgumentException("Both the input and the output file are required");
+        }
+        var input = Path.of(inputPath);
+        if (!Files.exists(input)) {
+            throw new IllegalArgumentException("File: %s does not exist".formatted(inputPath));
+        }
+        return BinaryPuzzles.isBinary(input) ? toText(input, Path.of(outputPath)) : toBinary(input, Path.of(outputPath));
+    }
+
+    private long toBinary(Path input, Path output) throws IOException {
+        try (var reader = MappedPuzzleReader.open(input);
+             var writer = BinaryPuzzleWriter.create(output, gridSize)) {
+            var puzzles = reader.all();
+            var grid = new int[gridSize][gridSize];
+            while (puzzles.next(grid)) {
+                writer.write(grid);
+            }
+            return writer.count();
+        }
+    }
+
+    private long toText(Path input, Path output) throws IOException {
+        try (var reader = BinaryPuzzleReader.open(input);
+             var writer = new GridWriter(GridFormat.LINE, Files.newOutputStream(output))) {
+            int n = reader.gridSize();
+            var puzzles = reader.all();
+            var grid = new int[n][n];
+            while (puzzles.next(grid)) {
+                writer.write(grid);
+            }
+            return reader.count();
+        }
+    }
+}
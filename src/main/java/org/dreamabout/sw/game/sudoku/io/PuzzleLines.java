@@ -0,0 +1,84 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import lombok.experimental.UtilityClass;
+
+/* The one-puzzle-per-line text format used by most puzzle collections: the N*N cells of the grid row by row,
+ * one character per cell, with '.' or '0' for an empty cell. Values above 9 are written as letters, 'A' for 10
+ * up to 'P' for 25, so a 16x16 puzzle is a line of 256 characters and a 25x25 one a line of 625. The size of the
+ * grid follows from the length of the line. */
+@UtilityClass
+public class PuzzleLines {
+
+    /* The length of a line holding a standard 9x9 puzzle. */
+    public static final int LINE_LENGTH = 81;
+
+    /* The largest value a single character can hold, 'Z'. */
+    public static final int MAX_VALUE = 35;
+
+    public static int lineLength(int n) {
+        return n * n;
+    }
+
+    /* Decodes a puzzle line into an existing grid, so the same grid can be reused for every line. The line must
+     * have exactly as many cells as the grid. */
+    public static void parse(CharSequence line, int[][] grid) {
+        int n = grid.length;
+        if (line.length() != lineLength(n)) {
+            throw new IllegalArgumentException("Expected %d cells but got %d: %s".formatted(lineLength(n), line.length(), line));
+        }
+        for (int i = 0; i < line.length(); i++) {
+            grid[i / n][i % n] = parseCell(line.charAt(i), n);
+        }
+    }
+
+    /* The number of rows of the grid a line of this length holds, or -1 if no square grid fits. */
+    public static int gridSizeOf(int lineLength) {
+        int n = (int) Math.round(Math.sqrt(lineLength));
+        int size = (int) Math.round(Math.sqrt(n));
+        return n * n == lineLength && size * size == n ? n : -1;
+    }
+
+    /* The value of a cell character, or -1 if it is not a valid value for a grid with n digits. */
+    public static int cellValue(char cell, int n) {
+        int value;
+        if (cell == '.' || cell == '0') {
+            return 0;
+        } else if (cell >= '1' && cell <= '9') {
+            value = cell - '0';
+        } else if (cell >= 'A' && cell <= 'Z') {
+            value = cell - 'A' + 10;
+        } else if (cell >= 'a' && cell <= 'z') {
+            value = cell - 'a' + 10;
+        } else {
+            return -1;
+        }
+        return value <= n ? value : -1;
+    }
+
+    public static int parseCell(char cell, int n) {
+        int value = cellValue(cell, n);
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid cell value: '%s'".formatted(cell));
+        }
+        return value;
+    }
+
+    public static char formatCell(int value) {
+        if (value < 0 || value > MAX_VALUE) {
+            throw new IllegalArgumentException("Value %d does not fit into a single character".formatted(value));
+        }
+        if (value == 0) {
+            return '.';
+        }
+        return value <= 9 ? (char) ('0' + value) : (char) ('A' + value - 10);
+    }
+
+    /* Appends the grid as a single line, without the line separator. */
+    public static void format(int[][] grid, StringBuilder out) {
+        for (int[] row : grid) {
+            for (int value : row) {
+                out.append(formatCell(value));
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+/* A sequence of puzzles that are decoded one at a time into a grid owned by the caller, so reading a puzzle
+ * does not have to allocate anything. */
+public interface PuzzleSource {
+
+    /* Decodes the next puzzle into the grid, with 0 for an empty cell. Returns false once there are no more
+     * puzzles, leaving the grid untouched. */
+    boolean next(int[][] grid);
+}
@@ -0,0 +1,261 @@
+package org.dreamabout.sw.game.sudoku.propagation;
+
+import java.util.Arrays;
+
+/* Fills in everything that follows directly from the clues before any search is needed:
+ * naked singles (a cell with a single candidate left), hidden singles (a digit with a single place left in a row,
+ * column or block) and locked candidates (a digit of a block confined to one row or column can be removed from
+ * the rest of that row or column, and the other way round). Locked candidates fill no cells themselves, but the
+ * candidates they remove let the singles go further.
+ * Every deduction is forced, so the reduced grid has exactly the same solutions as the original one.
+ * Works for any square grid up to 25x25. Instances are reusable, but not thread safe. */
+public class ConstraintPropagator {
+
+    private static final int MAX_N = 25; // one bit per digit in an int
+
+    private int n;
+    private int size;
+    private int allDigits;
+    // the candidates of every cell as a bit mask, bit d - 1 for digit d, and the value of every cell
+    private int[] candidates;
+    private int[] values;
+    // the cells of every row, column and block, in this order, and the three units of every cell
+    private int[][] units;
+    private int[][] unitsOfCell;
+
+    private int nakedSingles;
+    private int hiddenSingles;
+    private int lockedCandidates;
+
+    /* Propagates the clues of the grid, which is left untouched; the deductions are in the returned grid. */
+    public PropagationResult propagate(int[][] grid) {
+        resize(grid.length);
+        nakedSingles = 0;
+        hiddenSingles = 0;
+        lockedCandidates = 0;
+        Arrays.fill(candidates, allDigits);
+        Arrays.fill(values, 0);
+        boolean consistent = placeClues(grid) && propagate();
+        PropagationResult.Status status;
+        if (!consistent) {
+            status = PropagationResult.Status.CONTRADICTION;
+        } else {
+            status = Arrays.stream(values).allMatch(v -> v != 0)
+                    ? PropagationResult.Status.SOLVED
+                    : PropagationResult.Status.REDUCED;
+        }
+        return new PropagationResult(toGrid(), status, nakedSingles, hiddenSingles, lockedCandidates);
+    }
+
+    private boolean placeClues(int[][] grid) {
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int value = grid[r][c];
+                if (value < 0 || value > n) {
+                    throw new IllegalArgumentException("Invalid value %d at row %d, column %d".formatted(value, r, c));
+                }
+                if (value != 0 && !assign(r * n + c, value)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // applies the techniques until none of them finds anything new, returns false on a contradiction
+    private boolean propagate() {
+        boolean progress = true;
+        while (progress) {
+            int found = nakedSingles + hiddenSingles;
+            if (!nakedSingles() || !hiddenSingles()) {
+                return false;
+            }
+            progress = nakedSingles + hiddenSingles > found;
+            // the more expensive technique only runs once the singles are exhausted
+            if (!progress) {
+                int removed = lockedCandidates;
+                if (!lockedCandidates()) {
+                    return false;
+                }
+                progress = lockedCandidates > removed;
+            }
+        }
+        return true;
+    }
+
+    private boolean nakedSingles() {
+        for (int cell = 0; cell < n * n; cell++) {
+            if (values[cell] == 0) {
+                if (candidates[cell] == 0) {
+                    return false;
+                }
+                if (Integer.bitCount(candidates[cell]) == 1) {
+                    if (!assign(cell, Integer.numberOfTrailingZeros(candidates[cell]) + 1)) {
+                        return false;
+                    }
+                    nakedSingles++;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean hiddenSingles() {
+        for (int[] unit : units) {
+            int once = 0; // digits that are a candidate in at least one empty cell of the unit
+            int twice = 0; // digits that are a candidate in at least two of them
+            int placed = 0; // digits already placed in the unit
+            for (int cell : unit) {
+                if (values[cell] != 0) {
+                    placed |= 1 << (values[cell] - 1);
+                } else {
+                    twice |= once & candidates[cell];
+                    once |= candidates[cell];
+                }
+            }
+            if ((once | placed) != allDigits) {
+                return false; // some digit has no place left in this unit
+            }
+            for (int singles = once & ~twice & ~placed; singles != 0; singles &= singles - 1) {
+                int bit = singles & -singles;
+                for (int cell : unit) {
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        if (!assign(cell, Integer.numberOfTrailingZeros(bit) + 1)) {
+                            return false;
+                        }
+                        hiddenSingles++;
+                        break;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // pointing: the candidates of a digit in a block all lie in one row or column, so the digit cannot be anywhere
+    // else in that row or column. Claiming: the candidates of a digit in a row or column all lie in one block, so
+    // the digit cannot be anywhere else in that block.
+    private boolean lockedCandidates() {
+        for (int b = 0; b < n; b++) {
+            int[] block = units[2 * n + b];
+            for (int d = 0; d < n; d++) {
+                int bit = 1 << d;
+                int rows = 0;
+                int cols = 0;
+                for (int cell : block) {
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        rows |= 1 << (cell / n);
+                        cols |= 1 << (cell % n);
+                    }
+                }
+                if (Integer.bitCount(rows) == 1
+                        && !eliminateOutside(units[Integer.numberOfTrailingZeros(rows)], 2 * n + b, bit)) {
+                    return false;
+                }
+                if (Integer.bitCount(cols) == 1
+                        && !eliminateOutside(units[n + Integer.numberOfTrailingZeros(cols)], 2 * n + b, bit)) {
+                    return false;
+                }
+            }
+        }
+        for (int line = 0; line < 2 * n; line++) {
+            for (int d = 0; d < n; d++) {
+                int bit = 1 << d;
+                int blocks = 0;
+                for (int cell : units[line]) {
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        blocks |= 1 << blockIndex(cell / n, cell % n);
+                    }
+                }
+                if (Integer.bitCount(blocks) == 1
+                        && !eliminateOutside(units[2 * n + Integer.numberOfTrailingZeros(blocks)], line, bit)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // removes the digit from every empty cell of the unit that does not also belong to the other unit
+    private boolean eliminateOutside(int[] unit, int otherUnit, int bit) {
+        for (int cell : unit) {
+            if (values[cell] == 0 && (candidates[cell] & bit) != 0 && !contains(unitsOfCell[cell], otherUnit)) {
+                candidates[cell] &= ~bit;
+                lockedCandidates++;
+                if (candidates[cell] == 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // places the digit and removes it from the candidates of every other cell in its row, column and block
+    private boolean assign(int cell, int digit) {
+        int bit = 1 << (digit - 1);
+        if ((candidates[cell] & bit) == 0) {
+            return false;
+        }
+        values[cell] = digit;
+        candidates[cell] = bit;
+        for (int u : unitsOfCell[cell]) {
+            for (int peer : units[u]) {
+                if (peer != cell && (candidates[peer] & bit) != 0) {
+                    candidates[peer] &= ~bit;
+                    if (values[peer] == 0 && candidates[peer] == 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void resize(int n) {
+        if (n == this.n) {
+            return;
+        }
+        int size = (int) Math.round(Math.sqrt(n));
+        if (size * size != n || n > MAX_N) {
+            throw new IllegalArgumentException("Unsupported grid size: %dx%d".formatted(n, n));
+        }
+        this.n = n;
+        this.size = size;
+        this.allDigits = (1 << n) - 1;
+        candidates = new int[n * n];
+        values = new int[n * n];
+        units = new int[3 * n][n];
+        unitsOfCell = new int[n * n][];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int cell = r * n + c;
+                int b = blockIndex(r, c);
+                units[r][c] = cell;
+                units[n + c][r] = cell;
+                units[2 * n + b][(r % size) * size + (c % size)] = cell;
+                unitsOfCell[cell] = new int[]{r, n + c, 2 * n + b};
+            }
+        }
+    }
+
+    private int blockIndex(int r, int c) {
+        return (c / size) + ((r / size) * size);
+    }
+
+    private int[][] toGrid() {
+        int[][] grid = new int[n][n];
+        for (int r = 0; r < n; r++) {
+            System.arraycopy(values, r * n, grid[r], 0, n);
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,43 @@
+package org.dreamabout.sw.game.sudoku.propagation;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.dreamabout.sw.game.sudoku.dlx.SearchBudget;
+import org.dreamabout.sw.game.sudoku.dlx.SolveResult;
+import org.dreamabout.sw.game.sudoku.dlx.SolverEngine;
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+
+import java.util.List;
+
+/* Runs the ConstraintPropagator in front of another engine. A puzzle that propagation solves completely never
+ * reaches the engine, otherwise the engine only gets the reduced grid with the deduced cells filled in. Because
+ * every deduction is forced, a grid solved by propagation alone has exactly one solution. */
+@RequiredArgsConstructor
+public class PropagatingEngine implements SolverEngine {
+
+    private final SolverEngine engine;
+    private final ConstraintPropagator propagator = new ConstraintPropagator();
+
+    /* What propagation did for the last puzzle solved. */
+    @Getter
+    private PropagationResult lastPropagation;
+
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions) {
+        return solve(grid, maxSolutions, SearchBudget.UNLIMITED);
+    }
+
+    /* The budget only applies to the engine, propagation itself always runs to the end. */
+    @Override
+    public SolveResult solve(SudokuGrid grid, int maxSolutions, SearchBudget budget) {
+        if (maxSolutions < 1) {
+            throw new IllegalArgumentException("maxSolutions must be at least 1, was: " + maxSolutions);
+        }
+        lastPropagation = propagator.propagate(grid.getGrid());
+        return switch (lastPropagation.status()) {
+            case CONTRADICTION -> SolveResult.of(List.of(), maxSolutions);
+            case SOLVED -> SolveResult.of(List.<int[][]>of(lastPropagation.grid()), maxSolutions);
+            case REDUCED -> engine.solve(new SudokuGrid(lastPropagation.grid()), maxSolutions, budget);
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package org.dreamabout.sw.game.sudoku.propagation;
+
+/* The grid after propagation, with every deduced cell filled in, and how much each technique contributed:
+ * the number of cells filled by naked singles and by hidden singles, and the number of candidates removed by
+ * locked candidates. */
+public record PropagationResult(int[][] grid, Status status, int nakedSingles, int hiddenSingles,
+                                int lockedCandidates) {
+
+    public enum Status {
+        /* Every cell is filled, the puzzle needs no search at all. */
+        SOLVED,
+        /* Some cells are still empty and have to be searched for. */
+        REDUCED,
+        /* The clues contradict each other, the puzzle has no solution. */
+        CONTRADICTION
+    }
+
+    public int resolvedCells() {
+        return nakedSingles + hiddenSingles;
+    }
+}
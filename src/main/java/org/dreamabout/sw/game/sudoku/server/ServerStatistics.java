@@ -0,0 +1,9 @@
+package org.dreamabout.sw.game.sudoku.server;
+
+import org.dreamabout.sw.game.sudoku.cache.CacheStatistics;
+
+/* The counters of a running SolveServer: the puzzles received, how many of them were solved and how many were
+ * turned away with BUSY, the puzzles currently waiting for a solver thread and the cache counters, null without
+ * a cache. */
+public record ServerStatistics(long requests, long solved, long rejected, int queued, CacheStatistics cache) {
+}
@@ -0,0 +1,300 @@
+package org.dreamabout.sw.game.sudoku.server;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import lombok.Setter;
+import org.dreamabout.sw.game.sudoku.cache.CachingEngine;
+import org.dreamabout.sw.game.sudoku.cache.SolutionCache;
+import org.dreamabout.sw.game.sudoku.dlx.CancellationToken;
+import org.dreamabout.sw.game.sudoku.dlx.EngineType;
+import org.dreamabout.sw.game.sudoku.dlx.SearchBudget;
+import org.dreamabout.sw.game.sudoku.dlx.SolverEngine;
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+import org.dreamabout.sw.game.sudoku.io.PuzzleLines;
+import org.dreamabout.sw.game.sudoku.propagation.PropagatingEngine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a JVM with warm solvers running and solves puzzles sent over a plain TCP connection on localhost, so that
+ * small puzzles do not pay for the JVM startup and the JIT warmup every time.
+ * The protocol is line based: every line a client sends is a puzzle in the one-puzzle-per-line format (81
+ * characters for 9x9, 256 for 16x16, ...), and for every line the server answers with one line, in the same order:
+ * the solution, UNSOLVABLE, TIMEOUT if the time limit ran out, BUSY if the server is overloaded, or ERROR and a
+ * message for a line that is not a puzzle. A client may send a whole batch before reading any answer.
+ * <p>
+ * Every connection is handled by two virtual threads, one reading and one writing, while the puzzles are solved by
+ * a fixed pool of worker threads that each keep their own engine, DLX_ARRAY unless chosen otherwise. The pool has a
+ * bounded queue: once it is full, new puzzles are answered with BUSY right away instead of piling up, so an
+ * overloaded server keeps its memory and its latency for the puzzles it accepted. A client that stops reading is
+ * slowed down instead: at most a few answers per connection are held before the server stops reading its
+ * puzzles. When a client disconnects, its puzzles still being solved are cancelled.
+ */
+@Command(name = "sudoku-server", description = "Solves puzzles sent over a local TCP connection, one puzzle per line")
+public class SolveServer implements AutoCloseable {
+
+    static final String UNSOLVABLE = "UNSOLVABLE";
+    static final String TIMEOUT = "TIMEOUT";
+    static final String BUSY = "BUSY";
+    static final String ERROR = "ERROR";
+
+    // answers held per connection until they are written
+    private static final int CONNECTION_WINDOW = 64;
+    // marks the end of the puzzles of a connection
+    private static final Future<String> END_OF_PUZZLES = CompletableFuture.completedFuture(null);
+
+    @Setter
+    @Option(name = {"--port"}, description = "Port to listen on, on localhost only (default 8181, 0 picks a free one)")
+    private int port = 8181;
+
+    @Setter
+    @Option(name = {"-e", "--engine"}, description = "Solver engine to use: DLX_OBJECT, DLX_ARRAY (default), DLX_PARALLEL, DLX_PORTFOLIO or BITBOARD")
+    private EngineType engine = EngineType.DLX_ARRAY;
+
+    @Setter
+    @Option(name = {"-p", "--propagate"}, description = "Fill in naked singles, hidden singles and locked candidates before the engine runs")
+    private boolean propagate;
+
+    @Setter
+    @Option(name = {"-t", "--threads"}, description = "Number of solver threads (default: number of cores)")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Setter
+    @Option(name = {"-q", "--queue-size"}, description = "Puzzles waiting for a solver thread before new ones are answered with BUSY (default 1024)")
+    private int queueSize = 1024;
+
+    @Setter
+    @Option(name = {"--time-limit"}, description = "Answer TIMEOUT after this many milliseconds per puzzle (DLX_ARRAY, DLX_PARALLEL and DLX_PORTFOLIO only)")
+    private long timeLimitMillis;
+
+    @Setter
+    @Option(name = {"--cache"}, description = "Cache the solutions of up to this many puzzles, symmetric copies included (default: no cache)")
+    private int cacheEntries;
+
+    // a different engine for the tests
+    @Setter
+    private Supplier<SolverEngine> engineFactory;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong solved = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private ServerSocket serverSocket;
+    private ThreadPoolExecutor solvers;
+    // the engine of every solver thread
+    private ThreadLocal<SolverEngine> solverEngines;
+    private ExecutorService connections;
+    private SolutionCache cache;
+
+    public static void main(String[] args) throws Exception {
+        var argsParser = SingleCommand.singleCommand(SolveServer.class);
+        var resultParser = argsParser.parseWithResult(args);
+        if (resultParser.wasSuccessful()) {
+            var server = resultParser.getCommand();
+            // an invalid combination of options is an argument error like the ones of the parser, not a crash
+            try {
+                server.start();
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                return;
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            System.out.printf("Listening on localhost:%d with %d %s solver threads%n", server.getPort(), server.threads, server.engine);
+            server.connections.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } else {
+            System.err.println(resultParser.getErrors());
+        }
+    }
+
+    public void start() throws IOException {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("--queue-size must be at least 1, was: " + queueSize);
+        }
+        if (timeLimitMillis > 0 && engineFactory == null && !engine.isBudgeted()) {
+            throw new IllegalArgumentException("The %s engine does not support a time limit".formatted(engine));
+        }
+        cache = cacheEntries > 0 ? new SolutionCache(cacheEntries) : null;
+        solverEngines = ThreadLocal.withInitial(this::createEngine);
+        // the worker threads are started when the first puzzles arrive and then stay, each with its warm engine
+        solvers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                Thread.ofPlatform().name("sudoku-solver-", 0).factory(), new ThreadPoolExecutor.AbortPolicy());
+        connections = Executors.newVirtualThreadPerTaskExecutor();
+        serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        connections.submit(this::accept);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public ServerStatistics statistics() {
+        return new ServerStatistics(requests.get(), solved.get(), rejected.get(), solvers.getQueue().size(),
+                cache == null ? null : cache.statistics());
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+        connections.shutdownNow();
+        solvers.shutdownNow();
+    }
+
+    private SolverEngine createEngine() {
+        var solver = engineFactory != null ? engineFactory.get() : engine.create();
+        if (propagate) {
+            solver = new PropagatingEngine(solver);
+        }
+        return cache != null ? new CachingEngine(solver, cache) : solver;
+    }
+
+    private Void accept() throws IOException {
+        while (!serverSocket.isClosed()) {
+            try {
+                var socket = serverSocket.accept();
+                connections.submit(() -> serve(socket));
+            } catch (SocketException e) {
+                if (!serverSocket.isClosed()) {
+                    throw e;
+                }
+            }
+        }
+        return null;
+    }
+
+    // reads the puzzles of one connection and hands them to the solvers; the answers are written in the same
+    // order by a second virtual thread, so a client can send a batch and read the answers as they come
+    private Void serve(Socket socket) throws Exception {
+        var token = new CancellationToken();
+        BlockingQueue<Future<String>> answers = new ArrayBlockingQueue<>(CONNECTION_WINDOW);
+        try (socket;
+             var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            var writing = connections.submit(() -> write(answers, writer, socket, token));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null && !token.isCancelled()) {
+                    line = line.strip();
+                    if (!line.isEmpty()) {
+                        answers.put(submit(line, token)); // blocks while the client does not read its answers
+                    }
+                }
+            } catch (IOException e) {
+                token.cancel(); // the connection broke, stop solving its puzzles
+            }
+            answers.put(END_OF_PUZZLES);
+            writing.get();
+        }
+        return null;
+    }
+
+    // writes the answers in the order of the puzzles. Once the client is gone the remaining answers are only
+    // taken and cancelled, so the reader never waits for room in the queue of a dead connection.
+    private Void write(BlockingQueue<Future<String>> answers, BufferedWriter writer, Socket socket, CancellationToken token)
+            throws InterruptedException, IOException {
+        boolean failed = false;
+        for (var answer = answers.take(); answer != END_OF_PUZZLES; answer = answers.take()) {
+            if (failed) {
+                answer.cancel(false);
+                continue;
+            }
+            try {
+                writer.write(await(answer));
+                writer.newLine();
+                // flush when no other answer is ready, so a batch goes out in large writes
+                var next = answers.peek();
+                if (next == null || !next.isDone()) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                failed = true;
+                token.cancel();
+                socket.close(); // wakes up the reader
+            }
+        }
+        if (!failed) {
+            writer.flush();
+        }
+        return null;
+    }
+
+    private Future<String> submit(String line, CancellationToken token) {
+        requests.incrementAndGet();
+        int n = PuzzleLines.gridSizeOf(line.length());
+        if (n < 0) {
+            return CompletableFuture.completedFuture("%s expected %d characters per puzzle, got %d"
+                    .formatted(ERROR, PuzzleLines.LINE_LENGTH, line.length()));
+        }
+        try {
+            return solvers.submit(() -> solve(line, n, token));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return CompletableFuture.completedFuture(BUSY);
+        }
+    }
+
+    private String solve(String line, int n, CancellationToken token) {
+        var grid = new int[n][n];
+        try {
+            PuzzleLines.parse(line, grid);
+        } catch (IllegalArgumentException e) {
+            return ERROR + " " + e.getMessage();
+        }
+        var solver = solverEngines.get();
+        var result = budgeted() ? solver.solve(new SudokuGrid(grid), 1, budget(token)) : solver.solve(new SudokuGrid(grid), 1);
+        if (result.isSolved()) {
+            solved.incrementAndGet();
+            var text = new StringBuilder(line.length());
+            PuzzleLines.format(result.solution(), text);
+            return text.toString();
+        }
+        return result.isExhausted() ? TIMEOUT : UNSOLVABLE;
+    }
+
+    // a disconnecting client only cancels the puzzles being solved for engines that can stop in the middle
+    private boolean budgeted() {
+        return engineFactory == null && engine.isBudgeted();
+    }
+
+    private SearchBudget budget(CancellationToken token) {
+        var budget = SearchBudget.UNLIMITED.withCancellation(token);
+        return timeLimitMillis > 0 ? budget.withTimeLimit(Duration.ofMillis(timeLimitMillis)) : budget;
+    }
+
+    private static String await(Future<String> answer) throws InterruptedException {
+        try {
+            return answer.get();
+        } catch (ExecutionException e) {
+            return ERROR + " " + e.getCause();
+        } catch (CancellationException e) {
+            return ERROR + " cancelled";
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.dreamabout.sw.game.sudoku.vector;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import lombok.Getter;
+import org.dreamabout.sw.game.sudoku.dlx.SolverEngine;
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+
+/* Solves puzzles a batch at a time, one puzzle per lane of a SIMD register. The candidates of every cell are kept
+ * as bit masks side by side for all the puzzles of the batch, structure of arrays: the masks of one cell in all the
+ * lanes are one IntVector, so every step of the elimination runs on all the puzzles at once with the Vector API.
+ * The steps are the same deductions as ConstraintPropagator makes, naked singles (a solved cell removes its digit
+ * from its row, column and block) and hidden singles (a digit with a single place left in a unit goes there),
+ * repeated until no lane changes any more. They are written without a branch per lane: a lane that is already
+ * solved or stuck simply stops changing.
+ *
+ * Most puzzles of a large batch are easy and come out solved; every deduction is forced, so they have exactly that
+ * solution. Lanes that run into a contradiction have no solution. Only the puzzles that are still open are handed,
+ * reduced to the cells the lanes solved, to the scalar fallback engine, which makes the final call.
+ *
+ * Needs the incubating jdk.incubator.vector module, the JVM must run with --add-modules jdk.incubator.vector.
+ * Works for any square grid up to 25x25. Instances are reusable, but not thread safe. */
+public class VectorBatchSolver {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int MAX_N = 25; // one bit per digit in an int lane
+
+    private final int n;
+    private final int cells;
+    private final int lanes = SPECIES.length();
+    private final int allDigits;
+    // the cells of every row, column and block, in this order
+    private final int[][] units;
+    // the candidates of every cell in every lane: the lanes ints of cell i start at i * lanes
+    private final int[] candidates;
+    // whether a lane ran into a contradiction, non zero when it did
+    private final int[] dead;
+    private final SolverEngine fallback;
+    private final int[][] reduced;
+    private final SudokuGrid reducedGrid;
+
+    // the puzzles solved by the lanes alone, handed to the fallback engine and found to have no solution
+    @Getter
+    private long propagated;
+    @Getter
+    private long searched;
+    @Getter
+    private long unsolvable;
+
+    public VectorBatchSolver(int n, SolverEngine fallback) {
+        int size = SudokuGrid.boxSize(n);
+        if (n > MAX_N) {
+            throw new IllegalArgumentException("Unsupported grid size: %dx%d, at most %dx%d".formatted(n, n, MAX_N, MAX_N));
+        }
+        this.n = n;
+        this.cells = n * n;
+        this.allDigits = (1 << n) - 1;
+        this.units = new int[3 * n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                units[i][j] = i * n + j;
+                units[n + i][j] = j * n + i;
+                units[2 * n + i][j] = ((i / size) * size + j / size) * n + (i % size) * size + j % size;
+            }
+        }
+        this.candidates = new int[cells * lanes];
+        this.dead = new int[lanes];
+        this.fallback = fallback;
+        this.reduced = new int[n][n];
+        this.reducedGrid = new SudokuGrid(reduced);
+    }
+
+    /* The number of puzzles solved at once, the number of int lanes of the preferred vector size. */
+    public int lanes() {
+        return lanes;
+    }
+
+    /* Solves the first count grids, at most lanes() of them, in place: solved[i] tells whether grids[i] now holds
+     * its solution; a puzzle without one is left as it was. Returns the number of puzzles solved. */
+    public int solve(int[][][] grids, int count, boolean[] solved) {
+        if (count > lanes) {
+            throw new IllegalArgumentException("At most %d puzzles at once, was: %d".formatted(lanes, count));
+        }
+        load(grids, count);
+        propagate();
+        int solvedCount = 0;
+        for (int lane = 0; lane < count; lane++) {
+            solved[lane] = finish(grids[lane], lane);
+            if (solved[lane]) {
+                solvedCount++;
+            }
+        }
+        return solvedCount;
+    }
+
+    // the clues of every puzzle as single candidates, the lanes without a puzzle are left with every candidate
+    private void load(int[][][] grids, int count) {
+        for (int lane = 0; lane < lanes; lane++) {
+            dead[lane] = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                int value = lane < count ? grids[lane][cell / n][cell % n] : 0;
+                if (value < 0 || value > n) {
+                    throw new IllegalArgumentException("Invalid value %d at row %d, column %d".formatted(value, cell / n, cell % n));
+                }
+                candidates[cell * lanes + lane] = value == 0 ? allDigits : 1 << (value - 1);
+            }
+        }
+    }
+
+    // naked and hidden singles on all the lanes until none of them changes any more. Candidates are only ever
+    // removed, so this ends after at most cells * n rounds, in practice after a few.
+    private void propagate() {
+        var zero = IntVector.zero(SPECIES);
+        var all = IntVector.broadcast(SPECIES, allDigits);
+        var contradiction = zero;
+        IntVector changed;
+        do {
+            changed = zero;
+            for (int[] unit : units) {
+                // naked singles: the digits of the solved cells, the ones solved twice and the cells without any
+                var seen = zero;
+                var twice = zero;
+                for (int cell : unit) {
+                    var c = IntVector.fromArray(SPECIES, candidates, cell * lanes);
+                    var single = single(c);
+                    twice = twice.or(seen.and(single)).blend(all, c.compare(VectorOperators.EQ, 0));
+                    seen = seen.or(single);
+                }
+                contradiction = contradiction.or(twice);
+                for (int cell : unit) {
+                    var c = IntVector.fromArray(SPECIES, candidates, cell * lanes);
+                    var next = c.and(seen.and(single(c).not()).not());
+                    changed = changed.or(c.lanewise(VectorOperators.XOR, next));
+                    next.intoArray(candidates, cell * lanes);
+                }
+                // hidden singles: the digits that are left in a single cell of the unit, and the ones left in none
+                var once = zero;
+                var many = zero;
+                for (int cell : unit) {
+                    var c = IntVector.fromArray(SPECIES, candidates, cell * lanes);
+                    many = many.or(once.and(c));
+                    once = once.or(c);
+                }
+                contradiction = contradiction.or(all.and(once.not()));
+                var hidden = once.and(many.not());
+                for (int cell : unit) {
+                    var c = IntVector.fromArray(SPECIES, candidates, cell * lanes);
+                    var h = c.and(hidden);
+                    var next = c.blend(h, h.compare(VectorOperators.NE, 0));
+                    changed = changed.or(c.lanewise(VectorOperators.XOR, next));
+                    next.intoArray(candidates, cell * lanes);
+                }
+            }
+        } while (changed.compare(VectorOperators.NE, 0).anyTrue());
+        contradiction.intoArray(dead, 0);
+    }
+
+    // the candidates of the cells that have a single one left, 0 for the others
+    private static IntVector single(IntVector c) {
+        return IntVector.zero(SPECIES).blend(c, c.and(c.sub(1)).compare(VectorOperators.EQ, 0));
+    }
+
+    // writes the solution of the lane into the grid, with the help of the fallback engine if the lane is still open
+    private boolean finish(int[][] grid, int lane) {
+        if (dead[lane] != 0) {
+            unsolvable++;
+            return false;
+        }
+        boolean complete = true;
+        for (int cell = 0; cell < cells; cell++) {
+            int c = candidates[cell * lanes + lane];
+            boolean single = (c & (c - 1)) == 0;
+            reduced[cell / n][cell % n] = single ? Integer.numberOfTrailingZeros(c) + 1 : 0;
+            complete &= single;
+        }
+        if (complete) {
+            propagated++;
+            copy(reduced, grid);
+            return true;
+        }
+        searched++;
+        var result = fallback.solve(reducedGrid);
+        if (!result.isSolved()) {
+            unsolvable++;
+            return false;
+        }
+        copy(result.solution(), grid);
+        return true;
+    }
+
+    private void copy(int[][] from, int[][] to) {
+        for (int r = 0; r < n; r++) {
+            System.arraycopy(from[r], 0, to[r], 0, n);
+        }
+    }
+}
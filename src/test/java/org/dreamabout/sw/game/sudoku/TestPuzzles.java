@@ -0,0 +1,44 @@
+package org.dreamabout.sw.game.sudoku;
+
+import org.dreamabout.sw.game.sudoku.dlx.SudokuSolver;
+import org.dreamabout.sw.game.sudoku.io.PuzzleLines;
+
+import java.util.Arrays;
+import java.util.List;
+
+/* The puzzles the tests share: the resource files of the test classpath, one 9x9 grid per file, and two puzzle
+ * lines for the tests of the file formats. */
+public final class TestPuzzles {
+
+    /* The resource names, without ".txt", of a puzzle of every difficulty; every one has a "_solution.txt" file. */
+    public static final List<String> PUZZLES = List.of(
+            "sudoku_easy_1",
+            "sudoku_intermediate_1",
+            "sudoku_difficult_1",
+            "sudoku_not_fun_1",
+            "sudoku_hardest_ever_1"
+    );
+
+    public static final String EASY = "..3.2.6..9..3.5..1..18.64....81.29..7.......8..67.82....26.95..8..2.3..9..5.1.3..";
+    public static final String HARD = "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..";
+
+    public static int[][] load(String resourceName) {
+        var sudokuSolver = new SudokuSolver();
+        sudokuSolver.loadSudokuFromStream(TestPuzzles.class.getClassLoader().getResourceAsStream(resourceName));
+        return sudokuSolver.getGridArray();
+    }
+
+    /* The grid of a resource file as a puzzle line. */
+    public static String line(String resourceName) {
+        var line = new StringBuilder();
+        PuzzleLines.format(load(resourceName), line);
+        return line.toString();
+    }
+
+    public static int[][] copy(int[][] grid) {
+        return Arrays.stream(grid).map(int[]::clone).toArray(int[][]::new);
+    }
+
+    private TestPuzzles() {
+    }
+}
@@ -0,0 +1,145 @@
+package org.dreamabout.sw.game.sudoku.batch;
+
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzleReader;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzleWriter;
+import org.dreamabout.sw.game.sudoku.io.PuzzleLines;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.PUZZLES;
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.line;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchSolverTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void solvesEveryLineInInputOrder(boolean vector) throws IOException {
+        var input = new StringBuilder();
+        var expected = new ArrayList<String>();
+        // repeat the puzzles so that there are many more chunks than threads
+        for (int round = 0; round < 20; round++) {
+            for (String puzzle : PUZZLES) {
+                input.append(line(puzzle + ".txt")).append('\n');
+                expected.add(line(puzzle + "_solution.txt"));
+            }
+        }
+        // two rows with the same clue can never be solved, and it is written back unchanged
+        var unsolvable = "11" + ".".repeat(PuzzleLines.LINE_LENGTH - 2);
+        input.append('\n').append(unsolvable).append('\n');
+        expected.add(unsolvable);
+
+        var batchSolver = new BatchSolver();
+        batchSolver.setThreads(3);
+        batchSolver.setChunkSize(7);
+        batchSolver.setVector(vector);
+        var output = new StringWriter();
+        var summary = batchSolver.solve(new StringReader(input.toString()), output);
+
+        assertEquals(expected, output.toString().lines().toList());
+        assertEquals(expected.size(), summary.puzzles());
+        assertEquals(1, summary.unsolved());
+        assertEquals(expected.size(), summary.latencies().count());
+        assertTrue(summary.latencies().percentile(0.5) <= summary.latencies().percentile(0.99));
+        assertTrue(summary.latencies().percentile(0.99) <= summary.latencies().max());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void writesMalformedLinesAsEmptyGridsAndGoesOn(boolean vector) throws IOException {
+        var input = new StringBuilder();
+        var expected = new ArrayList<String>();
+        var empty = ".".repeat(PuzzleLines.LINE_LENGTH);
+        for (int round = 0; round < 4; round++) {
+            for (String puzzle : PUZZLES) {
+                input.append(line(puzzle + ".txt")).append('\n');
+                expected.add(line(puzzle + "_solution.txt"));
+            }
+            // a character that is not a cell, then a line cut short
+            var puzzle = line(PUZZLES.get(round) + ".txt");
+            var broken = round % 2 == 0 ? "X" + puzzle.substring(1) : puzzle.substring(1);
+            input.append(broken).append('\n');
+            expected.add(empty);
+        }
+
+        var batchSolver = new BatchSolver();
+        batchSolver.setThreads(2);
+        batchSolver.setChunkSize(4);
+        batchSolver.setVector(vector);
+        var output = new StringWriter();
+        var summary = batchSolver.solve(new StringReader(input.toString()), output);
+
+        assertEquals(expected, output.toString().lines().toList());
+        assertEquals(expected.size(), summary.puzzles());
+        assertEquals(4, summary.malformed());
+        assertEquals(PUZZLES.size(), summary.firstMalformed());
+        assertEquals(0, summary.unsolved());
+        assertEquals(expected.size() - 4, summary.latencies().count());
+        assertTrue(summary.format().contains("Malformed:   first at puzzle 5"), summary.format());
+    }
+
+    @Test
+    void answersRepeatedPuzzlesFromTheCache() throws IOException {
+        var input = new StringBuilder();
+        var expected = new ArrayList<String>();
+        for (int round = 0; round < 10; round++) {
+            for (String puzzle : PUZZLES) {
+                input.append(line(puzzle + ".txt")).append('\n');
+                expected.add(line(puzzle + "_solution.txt"));
+            }
+        }
+        var batchSolver = new BatchSolver();
+        batchSolver.setThreads(1);
+        var cache = batchSolver.setCacheEntries(100);
+        var output = new StringWriter();
+        batchSolver.solve(new StringReader(input.toString()), output);
+
+        assertEquals(expected, output.toString().lines().toList());
+        assertEquals(PUZZLES.size(), cache.statistics().misses());
+        assertEquals(expected.size() - PUZZLES.size(), cache.statistics().hits());
+    }
+
+    @Test
+    void solvesBinaryFilesIntoBinaryFiles() throws IOException {
+        var input = tempDir.resolve("puzzles.bin");
+        var grid = new int[9][9];
+        try (var writer = BinaryPuzzleWriter.create(input, 9)) {
+            for (int round = 0; round < 30; round++) {
+                for (String puzzle : PUZZLES) {
+                    PuzzleLines.parse(line(puzzle + ".txt"), grid);
+                    writer.write(grid);
+                }
+            }
+        }
+        var output = tempDir.resolve("solutions.bin");
+        var batchSolver = new BatchSolver();
+        batchSolver.setThreads(2);
+        batchSolver.setChunkSize(16);
+        try (var puzzles = BinaryPuzzleReader.open(input);
+             var writer = BinaryPuzzleWriter.create(output, 9)) {
+            assertEquals(30 * PUZZLES.size(), batchSolver.solve(puzzles, writer).puzzles());
+        }
+        try (var solutions = BinaryPuzzleReader.open(output)) {
+            assertEquals(30 * PUZZLES.size(), solutions.count());
+            var text = new StringBuilder();
+            for (int i = 0; i < solutions.count(); i++) {
+                solutions.read(i, grid);
+                text.setLength(0);
+                PuzzleLines.format(grid, text);
+                assertEquals(line(PUZZLES.get(i % PUZZLES.size()) + "_solution.txt"), text.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.dreamabout.sw.game.sudoku.batch;
+
+import org.dreamabout.sw.game.sudoku.batch.SolutionValidator.Verdict;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzleWriter;
+import org.dreamabout.sw.game.sudoku.io.PuzzleLines;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.copy;
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchValidatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void findsEveryKindOfInvalidSolution() {
+        var puzzle = load("sudoku_hardest_ever_1.txt");
+        var solution = load("sudoku_hardest_ever_1_solution.txt");
+        var validator = new SolutionValidator(9);
+        assertEquals(Verdict.VALID, validator.check(puzzle, solution));
+        // a solution is valid against the empty puzzle as well, and it is its own puzzle
+        assertEquals(Verdict.VALID, validator.check(new int[9][9], solution));
+        assertEquals(Verdict.VALID, validator.check(solution, solution));
+
+        var empty = copy(solution);
+        empty[8][8] = 0;
+        assertEquals(Verdict.INCOMPLETE, validator.check(puzzle, empty));
+
+        // swapping two cells of a row keeps the row valid, but not the columns, and breaks a clue
+        var swapped = copy(solution);
+        swapped[0][0] = solution[0][1];
+        swapped[0][1] = solution[0][0];
+        assertEquals(puzzle[0][0] != 0 ? Verdict.CLUE_MISMATCH : Verdict.DUPLICATE, validator.check(puzzle, swapped));
+        assertEquals(Verdict.DUPLICATE, validator.check(new int[9][9], swapped));
+    }
+
+    @Test
+    void rejectsGridsWithMoreDigitsThanAMaskHolds() {
+        var validator = new SolutionValidator(25);
+        var solution = new int[25][25];
+        for (int r = 0; r < 25; r++) {
+            for (int c = 0; c < 25; c++) {
+                solution[r][c] = (r % 5 * 5 + r / 5 + c) % 25 + 1;
+            }
+        }
+        assertEquals(Verdict.VALID, validator.check(new int[25][25], solution));
+        solution[24][24] = solution[24][23];
+        assertEquals(Verdict.DUPLICATE, validator.check(new int[25][25], solution));
+        assertThrows(IllegalArgumentException.class, () -> new SolutionValidator(36));
+    }
+
+    @Test
+    void reportsTheInvalidRecordsOfTextAndBinaryFilesInOrder() throws IOException {
+        var puzzle = load("sudoku_difficult_1.txt");
+        var solution = load("sudoku_difficult_1_solution.txt");
+        var wrong = copy(solution);
+        wrong[4][4] = wrong[4][4] % 9 + 1;
+        var puzzles = new ArrayList<String>();
+        var solutions = new ArrayList<int[][]>();
+        for (int i = 0; i < 100; i++) {
+            puzzles.add(line(puzzle));
+            solutions.add(i % 17 == 5 ? wrong : solution);
+        }
+        // one more puzzle than solutions, its solution is missing
+        puzzles.add(line(puzzle));
+        var puzzleFile = tempDir.resolve("puzzles.txt");
+        Files.write(puzzleFile, puzzles);
+        var solutionFile = tempDir.resolve("solutions.bin");
+        try (var writer = BinaryPuzzleWriter.create(solutionFile, 9)) {
+            for (var grid : solutions) {
+                writer.write(grid);
+            }
+        }
+        var report = tempDir.resolve("report.txt");
+        var validator = new BatchValidator();
+        validator.setPuzzlesPath(puzzleFile.toString());
+        validator.setSolutionsPath(solutionFile.toString());
+        validator.setReportPath(report.toString());
+        validator.setThreads(3);
+        validator.setChunkSize(8);
+        var summary = validator.run();
+
+        var expected = new ArrayList<String>();
+        for (int i = 5; i < 100; i += 17) {
+            expected.add(i + " " + (puzzle[4][4] != 0 ? Verdict.CLUE_MISMATCH : Verdict.DUPLICATE));
+        }
+        expected.add("100 " + Verdict.MISSING);
+        assertEquals(expected, Files.readAllLines(report));
+        assertEquals(101, summary.records());
+        assertEquals(expected.size(), summary.invalid());
+    }
+
+    @Test
+    void checksTextSolutionsWithOtherLineEndings() throws IOException {
+        var puzzle = line(load("sudoku_easy_1.txt"));
+        var solution = line(load("sudoku_easy_1_solution.txt"));
+        var puzzleFile = tempDir.resolve("puzzles.txt");
+        Files.writeString(puzzleFile, (puzzle + "\n").repeat(30));
+        var solutionFile = tempDir.resolve("solutions.txt");
+        Files.writeString(solutionFile, "\r\n" + (solution + "\r\n\n").repeat(30));
+        var validator = new BatchValidator();
+        validator.setPuzzlesPath(puzzleFile.toString());
+        validator.setSolutionsPath(solutionFile.toString());
+        validator.setReportPath(tempDir.resolve("report.txt").toString());
+        validator.setChunkSize(4);
+        var summary = validator.run();
+        assertEquals(30, summary.records());
+        assertEquals(0, summary.invalid());
+        assertEquals(List.of(), Files.readAllLines(tempDir.resolve("report.txt")));
+    }
+
+    @Test
+    void reportsMalformedRecordsAndGoesOn() throws IOException {
+        var puzzle = line(load("sudoku_not_fun_1.txt"));
+        var solution = line(load("sudoku_not_fun_1_solution.txt"));
+        var puzzleFile = tempDir.resolve("puzzles.txt");
+        Files.writeString(puzzleFile, (puzzle + "\n").repeat(6));
+        // record 1 has a character that is not a digit, record 3 is cut to 80 cells
+        var solutionFile = tempDir.resolve("solutions.txt");
+        Files.write(solutionFile, List.of(solution, "X" + solution.substring(1), solution, solution.substring(0, 80),
+                solution, solution));
+        for (int chunkSize : new int[]{1, 2, 4}) {
+            var report = tempDir.resolve("report-" + chunkSize + ".txt");
+            var validator = new BatchValidator();
+            validator.setPuzzlesPath(puzzleFile.toString());
+            validator.setSolutionsPath(solutionFile.toString());
+            validator.setReportPath(report.toString());
+            validator.setChunkSize(chunkSize);
+            var summary = validator.run();
+            assertEquals(List.of("1 " + Verdict.MALFORMED, "3 " + Verdict.MALFORMED), Files.readAllLines(report));
+            assertEquals(6, summary.records());
+            assertEquals(2, summary.invalid());
+        }
+    }
+
+    private static String line(int[][] grid) {
+        var line = new StringBuilder();
+        PuzzleLines.format(grid, line);
+        return line.toString();
+    }
+}
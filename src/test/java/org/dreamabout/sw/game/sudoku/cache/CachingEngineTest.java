@@ -0,0 +1,106 @@
+package org.dreamabout.sw.game.sudoku.cache;
+
+import org.dreamabout.sw.game.sudoku.dlx.EngineType;
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingEngineTest {
+
+    @Test
+    void answersSymmetricCopiesFromTheCache() {
+        var cache = new SolutionCache(10);
+        var engine = new CachingEngine(EngineType.DLX_ARRAY.create(), cache);
+        var puzzle = load("sudoku_not_fun_1.txt");
+        var solution = load("sudoku_not_fun_1_solution.txt");
+        assertArrayEquals(solution, engine.solve(new SudokuGrid(puzzle), 1).solution());
+
+        // every symmetry applied to the puzzle must give the same symmetry applied to the solution
+        var symmetries = List.<UnaryOperator<int[][]>>of(
+                CachingEngineTest::transpose,
+                CachingEngineTest::relabel,
+                CachingEngineTest::swapBands,
+                CachingEngineTest::swapRowsInBand,
+                grid -> transpose(swapRowsInBand(relabel(swapBands(grid)))));
+        for (var symmetry : symmetries) {
+            var result = engine.solve(new SudokuGrid(symmetry.apply(puzzle)), 1);
+            assertArrayEquals(symmetry.apply(solution), result.solution());
+        }
+        assertEquals(1, cache.statistics().misses());
+        assertEquals(symmetries.size(), cache.statistics().hits());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedPuzzle() {
+        var cache = new SolutionCache(2);
+        var engine = new CachingEngine(EngineType.DLX_ARRAY.create(), cache);
+        var easy = new SudokuGrid(load("sudoku_easy_1.txt"));
+        var difficult = new SudokuGrid(load("sudoku_difficult_1.txt"));
+        var hardest = new SudokuGrid(load("sudoku_hardest_ever_1.txt"));
+        engine.solve(easy, 1);
+        engine.solve(difficult, 1);
+        engine.solve(easy, 1); // easy is now used more recently than difficult
+        engine.solve(hardest, 1);
+        assertEquals(1, cache.statistics().evictions());
+        engine.solve(easy, 1);
+        assertEquals(2, cache.statistics().hits());
+        engine.solve(difficult, 1);
+        assertEquals(2, cache.statistics().hits());
+        assertEquals(2, cache.statistics().size());
+    }
+
+    @Test
+    void aSolutionLimitOnlyAnswersSmallerLimits() {
+        var cache = new SolutionCache(10);
+        var engine = new CachingEngine(EngineType.DLX_ARRAY.create(), cache);
+        var empty = new SudokuGrid(new int[9][9]);
+        assertTrue(engine.solve(empty, 1).limitReached());
+        var two = engine.solve(empty, 2);
+        assertEquals(2, two.solutionCount());
+        assertEquals(0, cache.statistics().hits());
+        assertEquals(1, engine.solve(empty, 1).solutionCount());
+        assertEquals(1, cache.statistics().hits());
+
+        var unique = new SudokuGrid(load("sudoku_not_fun_1.txt"));
+        assertTrue(engine.solve(unique, 2).isUnique());
+        // the search was complete, so any limit is answered
+        assertTrue(engine.solve(unique, 5).isUnique());
+        assertEquals(2, cache.statistics().hits());
+    }
+
+    private static int[][] transpose(int[][] grid) {
+        var result = new int[9][9];
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                result[c][r] = grid[r][c];
+            }
+        }
+        return result;
+    }
+
+    private static int[][] relabel(int[][] grid) {
+        int[] digits = {0, 4, 7, 1, 9, 2, 8, 3, 6, 5};
+        var result = new int[9][9];
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                result[r][c] = digits[grid[r][c]];
+            }
+        }
+        return result;
+    }
+
+    private static int[][] swapBands(int[][] grid) {
+        return new int[][]{grid[6], grid[7], grid[8], grid[0], grid[1], grid[2], grid[3], grid[4], grid[5]};
+    }
+
+    private static int[][] swapRowsInBand(int[][] grid) {
+        return new int[][]{grid[2], grid[0], grid[1], grid[3], grid[5], grid[4], grid[6], grid[7], grid[8]};
+    }
+}
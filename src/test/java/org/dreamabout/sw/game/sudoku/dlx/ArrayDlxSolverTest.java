@@ -0,0 +1,80 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.PUZZLES;
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.copy;
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrayDlxSolverTest {
+
+    @Test
+    void reusesTheSameSolverForManyPuzzles() {
+        var solver = new ArrayDlxSolver();
+        // solve every puzzle twice with the same instance, the links must be restored after each of them
+        for (int round = 0; round < 2; round++) {
+            for (String puzzle : PUZZLES) {
+                var grid = load(puzzle + ".txt");
+                assertTrue(solver.solve(grid));
+                assertTrue(Arrays.deepEquals(load(puzzle + "_solution.txt"), grid), puzzle);
+            }
+        }
+    }
+
+    @Test
+    void contradictingCluesLeaveTheSolverReusable() {
+        var solver = new ArrayDlxSolver();
+        var grid = load("sudoku_easy_1.txt");
+        // repeat one of the clues of the first row in an empty cell of the same row
+        var broken = copy(grid);
+        int clue = Arrays.stream(grid[0]).filter(v -> v != 0).findFirst().orElseThrow();
+        int empty = Arrays.stream(grid[0]).boxed().toList().indexOf(0);
+        broken[0][empty] = clue;
+        var untouched = copy(broken);
+        assertFalse(solver.solve(broken));
+        assertArrayEquals(untouched, broken);
+
+        assertTrue(solver.solve(grid));
+        assertTrue(Arrays.deepEquals(load("sudoku_easy_1_solution.txt"), grid));
+    }
+
+    @Test
+    void stopsAtTheSolutionLimit() {
+        var solver = new ArrayDlxSolver();
+        var empty = new int[9][9];
+
+        var first = solver.solve(empty, 1);
+        assertEquals(1, first.solutionCount());
+        assertTrue(first.limitReached());
+
+        var two = solver.solve(empty, 2);
+        assertEquals(2, two.solutionCount());
+        assertTrue(two.limitReached());
+        assertFalse(two.isUnique());
+        assertFalse(Arrays.deepEquals(two.solutions().get(0), two.solutions().get(1)));
+        // the grid itself is left untouched
+        assertArrayEquals(new int[9][9], empty);
+
+        var objectEngine = new AlgorithmXSolver(new int[9][9]).solve(2);
+        assertEquals(2, objectEngine.solutionCount());
+        assertTrue(objectEngine.limitReached());
+    }
+
+    @Test
+    void recognizesAUniqueSolution() {
+        var grid = load("sudoku_hardest_ever_1.txt");
+        var solution = load("sudoku_hardest_ever_1_solution.txt");
+        for (var result : List.of(new ArrayDlxSolver().solve(grid, 2), new AlgorithmXSolver(grid).solve(2))) {
+            assertTrue(result.isUnique());
+            assertFalse(result.limitReached());
+            assertTrue(Arrays.deepEquals(solution, result.solution()));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExactCoverSolverTest {
+
+    @Test
+    void solvesKnuthsExample() {
+        // the example from Knuth's Dancing Links paper, its only solution is rows 0, 3 and 4
+        var problem = ExactCover.builder(7, 0);
+        problem.addRow(2, 4, 5);
+        problem.addRow(0, 3, 6);
+        problem.addRow(1, 2, 5);
+        problem.addRow(0, 3);
+        problem.addRow(1, 6);
+        problem.addRow(3, 4, 6);
+        var result = new ExactCoverSolver(problem.build()).solve(2);
+        assertEquals(1, result.solutionCount());
+        assertFalse(result.limitReached());
+        var rows = result.solution();
+        Arrays.sort(rows);
+        assertArrayEquals(new int[]{0, 3, 4}, rows);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 1", "4, 2", "6, 4", "8, 92"})
+    void countsTheSolutionsOfNQueens(int n, long solutions) {
+        // one queen in every rank and every file, the diagonals are secondary: at most one queen each
+        var problem = ExactCover.builder(2 * n, 2 * (2 * n - 1));
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                problem.addRow(r, n + c, 2 * n + r + c, 2 * n + 2 * n - 1 + r - c + n - 1);
+            }
+        }
+        var solver = new ExactCoverSolver(problem.build());
+        assertEquals(solutions, solver.count().count());
+        // the solver is reusable, and a queen placed in advance is part of every solution
+        var withCorner = solver.solve(new int[]{0}, Integer.MAX_VALUE, SearchBudget.UNLIMITED);
+        assertTrue(withCorner.solutions().stream().allMatch(rows -> rows[0] == 0 && rows.length == n));
+        assertEquals(solutions, solver.count().count());
+    }
+
+    @Test
+    void countsTheDominoTilingsOfAStrip() {
+        // a 2x10 strip has Fibonacci(11) = 89 domino tilings
+        int length = 10;
+        var problem = ExactCover.builder(2 * length, 0);
+        for (int c = 0; c < length; c++) {
+            problem.addRow(c, length + c);
+            if (c + 1 < length) {
+                problem.addRow(c, c + 1);
+                problem.addRow(length + c, length + c + 1);
+            }
+        }
+        var solver = new ExactCoverSolver(problem.build());
+        assertEquals(89, solver.count().count());
+        int enumerated = 0;
+        for (var iterator = solver.solutions(); iterator.hasNext(); iterator.next()) {
+            enumerated++;
+        }
+        assertEquals(89, enumerated);
+    }
+
+    @Test
+    void countsWithColumnsLongerThanTheLastBucket() {
+        // columns 0 and 1 start with 75 rows each and column 2 with 66, all of them share the last bucket
+        var problem = ExactCover.builder(3, 0);
+        for (int i = 0; i < 70; i++) {
+            problem.addRow(0);
+            problem.addRow(1);
+        }
+        for (int i = 0; i < 5; i++) {
+            problem.addRow(0, 1);
+        }
+        for (int i = 0; i < ExactCoverSolver.MAX_BUCKET + 2; i++) {
+            problem.addRow(2);
+        }
+        var solver = new ExactCoverSolver(problem.build());
+        assertEquals((70 * 70 + 5) * (ExactCoverSolver.MAX_BUCKET + 2), solver.count().count());
+        // a selected row moves the other columns below the last bucket
+        assertEquals(70 * 70 + 5, solver.count(new int[]{140 + 5}, SearchBudget.UNLIMITED).count());
+        assertEquals((70 * 70 + 5) * (ExactCoverSolver.MAX_BUCKET + 2), solver.count().count());
+    }
+
+    @Test
+    void pushedRowsStayInEverySolutionUntilPopped() {
+        // 6 queens: the queen on the second square of the first rank leaves only one of the 4 solutions
+        int n = 6;
+        var problem = ExactCover.builder(2 * n, 2 * (2 * n - 1));
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                problem.addRow(r, n + c, 2 * n + r + c, 2 * n + 2 * n - 1 + r - c + n - 1);
+            }
+        }
+        var solver = new ExactCoverSolver(problem.build());
+        assertTrue(solver.push(1));
+        assertEquals(1, solver.count().count());
+        assertTrue(solver.solve(1).solution()[0] == 1);
+        // a queen in the same file conflicts and changes nothing
+        assertFalse(solver.push(n + 1));
+        assertEquals(1, solver.pushed());
+        assertEquals(1, solver.pop());
+        assertEquals(4, solver.count().count());
+        assertThrows(IllegalStateException.class, solver::pop);
+    }
+
+    @Test
+    void conflictingSelectedRowsHaveNoSolution() {
+        var problem = ExactCover.builder(2, 1);
+        int a = problem.addRow(0, 2);
+        int b = problem.addRow(1, 2);
+        problem.addRow(1);
+        var solver = new ExactCoverSolver(problem.build());
+        // a and b share the secondary column
+        assertFalse(solver.solve(new int[]{a, b}, 1, SearchBudget.UNLIMITED).isSolved());
+        assertEquals(1, solver.count().count());
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(new int[]{3}, 1, SearchBudget.UNLIMITED));
+    }
+
+    @Test
+    void rejectsInvalidRows() {
+        var problem = ExactCover.builder(3, 1);
+        assertThrows(IllegalArgumentException.class, problem::addRow);
+        assertThrows(IllegalArgumentException.class, () -> problem.addRow(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> problem.addRow(1, 1));
+    }
+}
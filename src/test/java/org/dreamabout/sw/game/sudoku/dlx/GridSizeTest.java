@@ -0,0 +1,85 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.dreamabout.sw.game.sudoku.io.PuzzleLines;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.HashSet;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GridSizeTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "sudoku_16x16_1.txt, 16, DLX_OBJECT",
+            "sudoku_16x16_1.txt, 16, DLX_ARRAY",
+            "sudoku_16x16_1.txt, 16, DLX_PARALLEL",
+            "sudoku_16x16_1.txt, 16, BITBOARD",
+            "sudoku_25x25_1.txt, 25, DLX_OBJECT",
+            "sudoku_25x25_1.txt, 25, DLX_ARRAY",
+            "sudoku_25x25_1.txt, 25, DLX_PARALLEL",
+            "sudoku_25x25_1.txt, 25, BITBOARD"
+    })
+    void solvesLargerGrids(String resourceName, int n, EngineType engine) {
+        var puzzle = load(resourceName);
+        assertEquals(n, puzzle.length);
+        var result = engine.create().solve(new SudokuGrid(puzzle), 1);
+        assertTrue(result.isSolved());
+        assertValidSolution(puzzle, result.solution());
+    }
+
+    @Test
+    void arraySolverSwitchesBetweenSizes() {
+        var solver = new ArrayDlxSolver();
+        var large = load("sudoku_16x16_1.txt");
+        var standard = load("sudoku_not_fun_1.txt");
+        assertTrue(solver.solve(large, 1).isSolved());
+        assertArrayEquals(load("sudoku_not_fun_1_solution.txt"), solver.solve(standard, 1).solution());
+        assertValidSolution(large, solver.solve(large, 1).solution());
+    }
+
+    @Test
+    void puzzleLinesRoundTripLetters() {
+        var puzzle = load("sudoku_16x16_1.txt");
+        var line = new StringBuilder();
+        PuzzleLines.format(puzzle, line);
+        assertEquals(256, line.length());
+        var parsed = new int[16][16];
+        PuzzleLines.parse(line, parsed);
+        assertArrayEquals(puzzle, parsed);
+    }
+
+    @Test
+    void rejectsGridsThatAreNotSquaresOfSquares() {
+        assertThrows(IllegalArgumentException.class, () -> new AlgorithmXSolver(new int[10][10]));
+        assertThrows(IllegalArgumentException.class, () -> new ArrayDlxSolver().solve(new int[12][12], 1));
+    }
+
+    private static void assertValidSolution(int[][] puzzle, int[][] solved) {
+        int n = puzzle.length;
+        int size = SudokuGrid.boxSize(n);
+        for (int i = 0; i < n; i++) {
+            var row = new HashSet<Integer>();
+            var column = new HashSet<Integer>();
+            var block = new HashSet<Integer>();
+            for (int j = 0; j < n; j++) {
+                row.add(solved[i][j]);
+                column.add(solved[j][i]);
+                block.add(solved[(i / size) * size + j / size][(i % size) * size + j % size]);
+                if (puzzle[i][j] != 0) {
+                    assertEquals(puzzle[i][j], solved[i][j]);
+                }
+            }
+            assertEquals(n, row.size());
+            assertEquals(n, column.size());
+            assertEquals(n, block.size());
+            assertTrue(row.stream().allMatch(value -> value >= 1 && value <= n));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelDlxSolverTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 3, 8})
+    void findsTheSameSolutionsAsTheSequentialSearch(int splitDepth) {
+        // the hardest puzzle without its first clue has a few hundred solutions
+        var grid = load("sudoku_hardest_ever_1.txt");
+        int removed = 0;
+        for (int i = 0; i < 81 && removed < 1; i++) {
+            if (grid[i / 9][i % 9] != 0) {
+                grid[i / 9][i % 9] = 0;
+                removed++;
+            }
+        }
+        var expected = new ArrayDlxSolver().solve(grid, Integer.MAX_VALUE);
+        try (var pool = new ForkJoinPool(4)) {
+            var actual = new ParallelDlxSolver(pool, splitDepth).solve(grid, Integer.MAX_VALUE);
+            assertEquals(expected.solutionCount(), actual.solutionCount());
+            assertFalse(actual.limitReached());
+            assertArrayEquals(sorted(expected.solutions().toArray(int[][][]::new)), sorted(actual.solutions().toArray(int[][][]::new)));
+            // the whole tree is searched either way, the levels that were split included
+            assertEquals(expected.statistics().nodes(), actual.statistics().nodes());
+        }
+    }
+
+    @Test
+    void countsTheNodesOfCancelledTasks() {
+        try (var pool = new ForkJoinPool(4)) {
+            var result = new ParallelDlxSolver(pool, 2).solve(new int[16][16], Integer.MAX_VALUE, SearchBudget.UNLIMITED.withMaxNodes(100_000));
+            assertEquals(SolveResult.Exhaustion.NODES, result.exhaustion());
+            // every task adds what it visited when it stops, the ones cancelled by the task that ran out included
+            assertTrue(result.statistics().nodes() > 100_000);
+        }
+    }
+
+    @Test
+    void stopsAllTasksAtTheSolutionLimit() {
+        var solver = new ParallelDlxSolver();
+        var result = solver.solve(new int[16][16], 3);
+        assertEquals(3, result.solutionCount());
+        assertTrue(result.limitReached());
+        // the engine is reusable after a cancelled search
+        assertArrayEquals(load("sudoku_not_fun_1_solution.txt"), solver.solve(load("sudoku_not_fun_1.txt"), 2).solution());
+    }
+
+    private static int[][][] sorted(int[][][] solutions) {
+        Arrays.sort(solutions, Comparator.comparing(Arrays::deepToString));
+        return solutions;
+    }
+}
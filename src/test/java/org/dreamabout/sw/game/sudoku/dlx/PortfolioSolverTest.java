@@ -0,0 +1,67 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortfolioSolverTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "sudoku_difficult_1.txt, sudoku_difficult_1_solution.txt",
+            "sudoku_not_fun_1.txt, sudoku_not_fun_1_solution.txt",
+            "sudoku_hardest_ever_1.txt, sudoku_hardest_ever_1_solution.txt"
+    })
+    void everyRacerFindsTheSameUniqueSolution(String toSolveFileName, String solutionFileName) {
+        var portfolio = new PortfolioSolver(4, 42);
+        for (int i = 0; i < 5; i++) {
+            var result = portfolio.solve(load(toSolveFileName), 2);
+            assertTrue(result.isUnique());
+            assertArrayEquals(load(solutionFileName), result.solution());
+        }
+        var statistics = portfolio.statistics();
+        assertEquals(4, statistics.size());
+        assertEquals("first-column", statistics.get(0).strategy());
+        assertTrue(statistics.stream().allMatch(strategy -> strategy.races() == 5 && strategy.nodes() > 0));
+        assertEquals(5, statistics.stream().mapToLong(PortfolioSolver.StrategyStatistics::wins).sum());
+    }
+
+    @Test
+    void aSingleRacerSearchesLikeTheArrayEngine() {
+        var grid = load("sudoku_hardest_ever_1.txt");
+        var portfolio = new PortfolioSolver(1, 42).solve(grid, 2);
+        var array = new ArrayDlxSolver().solve(grid, 2);
+        assertEquals(array.nodes(), portfolio.nodes());
+        assertArrayEquals(array.solution(), portfolio.solution());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"9", "16"})
+    void everyRacerFinishesOnAnEmptyGrid(int n) {
+        // every column has the same size at the root, so the seeded racers fall back to the scan in header order
+        var portfolio = new PortfolioSolver(3, 42);
+        for (int i = 0; i < 3; i++) {
+            var result = portfolio.solve(new int[n][n], 1);
+            assertTrue(result.isSolved());
+            assertEquals(SolveResult.Exhaustion.NONE, result.exhaustion());
+        }
+        // a racer that failed would have made solve throw; every one of them raced and searched
+        assertTrue(portfolio.statistics().stream().allMatch(strategy -> strategy.races() == 3 && strategy.nodes() > 0));
+    }
+
+    @Test
+    void solvesLargerGrids() {
+        var grid = load("sudoku_16x16_1.txt");
+        var portfolio = new PortfolioSolver(3, 7);
+        var result = portfolio.solve(grid, 1);
+        assertTrue(result.isSolved());
+        assertEquals(SolveResult.Exhaustion.NONE, result.exhaustion());
+        // the racers are created again for another grid size
+        assertTrue(portfolio.solve(load("sudoku_easy_1.txt"), 2).isUnique());
+    }
+}
@@ -0,0 +1,83 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchBudgetTest {
+
+    // counting every solution of an empty grid never finishes, only the budget can stop it
+    private static final SudokuGrid EMPTY = new SudokuGrid(new int[9][9]);
+
+    @ParameterizedTest
+    @EnumSource(value = EngineType.class, names = {"DLX_ARRAY", "DLX_PARALLEL", "DLX_PORTFOLIO"})
+    void stopsAfterTheNodeBudget(EngineType engineType) {
+        var engine = engineType.create();
+        var result = engine.solve(EMPTY, Integer.MAX_VALUE, SearchBudget.UNLIMITED.withMaxNodes(100_000));
+        assertEquals(SolveResult.Exhaustion.NODES, result.exhaustion());
+        assertTrue(result.isSolved());
+        assertFalse(result.limitReached());
+        assertFalse(result.isUnique());
+        assertTrue(result.nodes() >= 100_000 - ExactCoverSolver.CHECK_INTERVAL && result.nodes() <= 100_000 + 16 * ExactCoverSolver.CHECK_INTERVAL);
+        // the links are restored, the engine can go on with the next puzzle
+        var next = engine.solve(new SudokuGrid(load("sudoku_not_fun_1.txt")), 2);
+        assertTrue(next.isUnique());
+        assertArrayEquals(load("sudoku_not_fun_1_solution.txt"), next.solution());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = EngineType.class, names = {"DLX_ARRAY", "DLX_PARALLEL", "DLX_PORTFOLIO"})
+    void stopsAfterTheTimeLimit(EngineType engineType) {
+        var budget = SearchBudget.UNLIMITED.withTimeLimit(Duration.ofMillis(50));
+        var result = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> engineType.create().solve(EMPTY, Integer.MAX_VALUE, budget));
+        assertEquals(SolveResult.Exhaustion.TIME, result.exhaustion());
+        assertTrue(result.nodes() > 0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = EngineType.class, names = {"DLX_ARRAY", "DLX_PARALLEL", "DLX_PORTFOLIO"})
+    void canBeCancelledFromAnotherThread(EngineType engineType) {
+        var token = new CancellationToken();
+        try (var scheduler = Executors.newSingleThreadScheduledExecutor()) {
+            scheduler.schedule(token::cancel, 50, TimeUnit.MILLISECONDS);
+            var result = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> engineType.create().solve(EMPTY, Integer.MAX_VALUE, SearchBudget.UNLIMITED.withCancellation(token)));
+            assertEquals(SolveResult.Exhaustion.CANCELLED, result.exhaustion());
+        }
+    }
+
+    @Test
+    void aSearchThatFinishesInTimeIsNotExhausted() {
+        var result = new ArrayDlxSolver().solve(load("sudoku_hardest_ever_1.txt"), 2, SearchBudget.UNLIMITED.withTimeLimit(Duration.ofMinutes(1)));
+        assertTrue(result.isUnique());
+        assertEquals(SolveResult.Exhaustion.NONE, result.exhaustion());
+        assertTrue(result.nodes() > 0);
+    }
+
+    @Test
+    void enginesWithoutBudgetsRejectALimitedOne() {
+        var engine = EngineType.BITBOARD.create();
+        assertThrows(UnsupportedOperationException.class, () -> engine.solve(EMPTY, 1, SearchBudget.UNLIMITED.withMaxNodes(10)));
+        assertTrue(engine.solve(EMPTY, 1, SearchBudget.UNLIMITED).isSolved());
+        // the error names the engine, a lambda has no name worth showing
+        var limited = SearchBudget.UNLIMITED.withMaxNodes(10);
+        var error = assertThrows(UnsupportedOperationException.class, () -> EngineType.DLX_OBJECT.create().solve(EMPTY, 1, limited));
+        assertEquals("ObjectDlxEngine does not support search budgets", error.getMessage());
+        SolverEngine lambda = (grid, maxSolutions) -> SolveResult.of(List.of(), maxSolutions);
+        error = assertThrows(UnsupportedOperationException.class, () -> lambda.solve(EMPTY, 1, limited));
+        assertEquals("This engine does not support search budgets", error.getMessage());
+    }
+}
@@ -0,0 +1,93 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionEnumerationTest {
+
+    @Test
+    void enumeratesTheSolutionsInTheOrderOfTheSearch() {
+        var grid = withoutFirstClue(load("sudoku_hardest_ever_1.txt"));
+        var solver = new ArrayDlxSolver();
+        var expected = solver.solve(grid, Integer.MAX_VALUE);
+        var actual = new ArrayList<int[][]>();
+        var iterator = solver.solutions(grid);
+        iterator.forEachRemaining(actual::add);
+        assertEquals(292, actual.size());
+        assertEquals(SolveResult.Exhaustion.NONE, iterator.exhaustion());
+        assertArrayEquals(expected.solutions().toArray(int[][][]::new), actual.toArray(int[][][]::new));
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void countsWithoutBuildingTheSolutions() {
+        var solver = new ArrayDlxSolver();
+        var result = solver.count(withoutFirstClue(load("sudoku_hardest_ever_1.txt")));
+        assertEquals(292, result.count());
+        assertTrue(result.isExact());
+        assertEquals(288, solver.count(new int[4][4]).count());
+        assertEquals(1, solver.count(load("sudoku_hardest_ever_1.txt")).count());
+        var invalid = new int[9][9];
+        invalid[0][0] = 5;
+        invalid[0][1] = 5;
+        assertEquals(0, solver.count(invalid).count());
+    }
+
+    @Test
+    void stopsCountingWhenTheBudgetIsExhausted() {
+        var result = new ArrayDlxSolver().count(new int[9][9], SearchBudget.UNLIMITED.withMaxNodes(100_000));
+        assertFalse(result.isExact());
+        assertEquals(SolveResult.Exhaustion.NODES, result.exhaustion());
+        assertTrue(result.count() > 0);
+    }
+
+    @Test
+    void streamsDistinctSolutionsLazily() {
+        var solver = new ArrayDlxSolver();
+        // the empty 9x9 grid has billions of solutions, only the ones asked for are searched
+        try (var solutions = solver.stream(new int[9][9])) {
+            var distinct = new HashSet<String>();
+            solutions.limit(1000).forEach(solved -> distinct.add(Arrays.deepToString(solved)));
+            assertEquals(1000, distinct.size());
+        }
+        assertEquals(288, solver.count(new int[4][4]).count());
+    }
+
+    @Test
+    void abandonedEnumerationLeavesTheSolverReusable() {
+        var solver = new ArrayDlxSolver();
+        var first = solver.solutions(new int[9][9]);
+        first.next();
+        first.next();
+        // solving another puzzle closes the enumeration
+        assertArrayEquals(load("sudoku_not_fun_1_solution.txt"), solver.solve(load("sudoku_not_fun_1.txt"), 2).solution());
+        assertFalse(first.hasNext());
+
+        var second = solver.solutions(new int[4][4]);
+        second.next();
+        second.close();
+        assertFalse(second.hasNext());
+        assertEquals(288, solver.count(new int[4][4]).count());
+    }
+
+    private static int[][] withoutFirstClue(int[][] grid) {
+        for (int i = 0; i < 81; i++) {
+            if (grid[i / 9][i % 9] != 0) {
+                grid[i / 9][i % 9] = 0;
+                break;
+            }
+        }
+        return grid;
+    }
+}
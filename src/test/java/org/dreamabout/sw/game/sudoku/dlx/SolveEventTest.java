@@ -0,0 +1,54 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveEventTest {
+
+    @Test
+    void collectsTheStatisticsOfEveryPhase() {
+        var statistics = new AlgorithmXSolver(load("sudoku_hardest_ever_1.txt")).solve(1).statistics();
+        assertTrue(statistics.buildNanos() > 0);
+        assertTrue(statistics.linkNanos() > 0);
+        assertTrue(statistics.searchNanos() > 0);
+        assertTrue(statistics.nodes() > statistics.maxDepth());
+        assertTrue(statistics.backtracks() > 0);
+        assertTrue(statistics.linkUpdates() > statistics.nodes());
+        // the clues are rows of the matrix as well, so every cell is one level of the search
+        assertEquals(81, statistics.maxDepth());
+    }
+
+    @Test
+    void recordsAFlightRecorderEventPerSolve(@TempDir Path dir) throws Exception {
+        var file = dir.resolve("solve.jfr");
+        var grid = load("sudoku_hardest_ever_1.txt");
+        SolveResult result;
+        try (var recording = new Recording()) {
+            recording.enable("org.dreamabout.sudoku.Solve");
+            recording.start();
+            result = new AlgorithmXSolver(grid).solve(1);
+            new ArrayDlxSolver().solve(grid, 1);
+            recording.stop();
+            recording.dump(file);
+        }
+        var events = RecordingFile.readAllEvents(file);
+        assertEquals(2, events.size());
+        RecordedEvent event = events.stream().filter(e -> e.getString("engine").equals("DLX_OBJECT")).findFirst().orElseThrow();
+        assertEquals(9, event.getInt("gridSize"));
+        assertEquals(21, event.getInt("clues"));
+        assertEquals(1, event.getInt("solutions"));
+        assertEquals("NONE", event.getString("exhaustion"));
+        assertEquals(result.statistics().nodes(), event.getLong("nodes"));
+        assertEquals(result.statistics().backtracks(), event.getLong("backtracks"));
+        assertEquals(result.statistics().searchNanos(), event.getDuration("searchTime").toNanos());
+    }
+}
@@ -0,0 +1,47 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Arrays;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolverEngineTest {
+
+    @ParameterizedTest
+    @EnumSource(EngineType.class)
+    void stopsAtTheSolutionLimit(EngineType engineType) {
+        var empty = new SudokuGrid(new int[9][9]);
+        var result = engineType.create().solve(empty, 2);
+        assertEquals(2, result.solutionCount());
+        assertTrue(result.limitReached());
+        assertFalse(Arrays.deepEquals(result.solutions().get(0), result.solutions().get(1)));
+        assertArrayEquals(new int[9][9], empty.getGrid());
+    }
+
+    @ParameterizedTest
+    @EnumSource(EngineType.class)
+    void recognizesAUniqueSolution(EngineType engineType) {
+        var engine = engineType.create();
+        var result = engine.solve(new SudokuGrid(load("sudoku_not_fun_1.txt")), 2);
+        assertTrue(result.isUnique());
+        assertTrue(Arrays.deepEquals(load("sudoku_not_fun_1_solution.txt"), result.solution()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(EngineType.class)
+    void reportsContradictingCluesAsUnsolved(EngineType engineType) {
+        var grid = new int[9][9];
+        grid[0][0] = 5;
+        grid[8][0] = 5; // the same digit twice in the first column
+        var result = engineType.create().solve(new SudokuGrid(grid), 1);
+        assertFalse(result.isSolved());
+        assertEquals(0, result.solutionCount());
+        assertFalse(result.limitReached());
+    }
+}
@@ -0,0 +1,105 @@
+package org.dreamabout.sw.game.sudoku.dlx;
+
+import org.junit.jupiter.api.Test;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolvingSessionTest {
+
+    @Test
+    void placingTheDigitsOfTheSolutionNeedsNoSearch() {
+        var solution = load("sudoku_hardest_ever_1_solution.txt");
+        var session = SolvingSession.of(load("sudoku_hardest_ever_1.txt"));
+        assertTrue(session.isUnique());
+        assertArrayEquals(solution, session.solution());
+        assertEquals(1, session.searches());
+        // fill in the whole grid from the hints, the puzzle stays unique without another search
+        for (var hint = session.hint(); hint != null; hint = session.hint()) {
+            assertEquals(solution[hint.row()][hint.column()], hint.value());
+            assertTrue(session.place(hint.row(), hint.column(), hint.value()));
+            assertTrue(session.isUnique());
+        }
+        assertArrayEquals(solution, session.grid());
+        assertEquals(1, session.searches());
+    }
+
+    @Test
+    void aDigitThatDisagreesWithTheOnlySolutionMakesThePuzzleUnsolvable() {
+        var solution = load("sudoku_not_fun_1_solution.txt");
+        var session = SolvingSession.of(load("sudoku_not_fun_1.txt"));
+        assertTrue(session.isUnique());
+        var hint = session.hint();
+        int wrong = hint.value() % 9 + 1;
+        session.place(hint.row(), hint.column(), wrong);
+        assertFalse(session.isSolvable());
+        assertNull(session.hint());
+        assertEquals(1, session.searches());
+        // replacing it with the right digit searches again, the cache was lost with the wrong one
+        session.place(hint.row(), hint.column(), hint.value());
+        assertTrue(session.isUnique());
+        assertArrayEquals(solution, session.solution());
+        assertEquals(2, session.searches());
+    }
+
+    @Test
+    void aContradictingClueIsKeptUntilItIsRemoved() {
+        var session = SolvingSession.of(load("sudoku_easy_1.txt"));
+        var grid = session.grid();
+        // the first clue of the first row, placed again in another empty cell of the same row
+        int clue = 0;
+        int empty = 0;
+        while (grid[0][clue] == 0) {
+            clue++;
+        }
+        while (grid[0][empty] != 0) {
+            empty++;
+        }
+        assertFalse(session.place(0, empty, grid[0][clue]));
+        assertFalse(session.isSolvable());
+        assertEquals(grid[0][clue], session.get(0, empty));
+        // removing the original clue resolves the contradiction, the rest is up to the search
+        session.remove(0, clue);
+        assertEquals(new ArrayDlxSolver().solve(session.grid(), 1).isSolved(), session.isSolvable());
+        session.remove(0, empty);
+        assertTrue(session.isSolvable());
+        session.place(0, clue, grid[0][clue]);
+        assertArrayEquals(grid, session.grid());
+        assertTrue(session.isUnique());
+    }
+
+    @Test
+    void removingAnyClueAgreesWithAFreshSearch() {
+        var puzzle = load("sudoku_difficult_1.txt");
+        var session = SolvingSession.of(puzzle);
+        var engine = new ArrayDlxSolver();
+        // remove the clues from the first placed on, so every removal pushes the later clues again
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                if (puzzle[r][c] != 0) {
+                    session.remove(r, c);
+                    var expected = engine.solve(session.grid(), 2);
+                    assertEquals(expected.isUnique(), session.isUnique());
+                    assertTrue(session.isSolvable());
+                }
+            }
+        }
+        assertArrayEquals(new int[9][9], session.grid());
+    }
+
+    @Test
+    void rejectsInvalidCellsAndValues() {
+        var session = new SolvingSession(4);
+        assertThrows(IllegalArgumentException.class, () -> session.place(0, 0, 5));
+        assertThrows(IllegalArgumentException.class, () -> session.place(0, 0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> session.place(4, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SolvingSession(5));
+        assertTrue(session.isSolvable());
+        assertFalse(session.isUnique());
+    }
+}
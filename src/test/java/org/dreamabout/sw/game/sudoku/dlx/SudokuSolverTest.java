@@ -11,14 +11,25 @@ class SudokuSolverTest {
 
     @ParameterizedTest
     @CsvSource({
-            "sudoku_easy_1.txt, sudoku_easy_1_solution.txt",
-            "sudoku_intermediate_1.txt, sudoku_intermediate_1_solution.txt",
-            "sudoku_difficult_1.txt, sudoku_difficult_1_solution.txt",
-            "sudoku_not_fun_1.txt, sudoku_not_fun_1_solution.txt",
-            "sudoku_hardest_ever_1.txt, sudoku_hardest_ever_1_solution.txt"
+            "sudoku_easy_1.txt, sudoku_easy_1_solution.txt, DLX_OBJECT",
+            "sudoku_intermediate_1.txt, sudoku_intermediate_1_solution.txt, DLX_OBJECT",
+            "sudoku_difficult_1.txt, sudoku_difficult_1_solution.txt, DLX_OBJECT",
+            "sudoku_not_fun_1.txt, sudoku_not_fun_1_solution.txt, DLX_OBJECT",
+            "sudoku_hardest_ever_1.txt, sudoku_hardest_ever_1_solution.txt, DLX_OBJECT",
+            "sudoku_easy_1.txt, sudoku_easy_1_solution.txt, DLX_ARRAY",
+            "sudoku_intermediate_1.txt, sudoku_intermediate_1_solution.txt, DLX_ARRAY",
+            "sudoku_difficult_1.txt, sudoku_difficult_1_solution.txt, DLX_ARRAY",
+            "sudoku_not_fun_1.txt, sudoku_not_fun_1_solution.txt, DLX_ARRAY",
+            "sudoku_hardest_ever_1.txt, sudoku_hardest_ever_1_solution.txt, DLX_ARRAY",
+            "sudoku_easy_1.txt, sudoku_easy_1_solution.txt, BITBOARD",
+            "sudoku_intermediate_1.txt, sudoku_intermediate_1_solution.txt, BITBOARD",
+            "sudoku_difficult_1.txt, sudoku_difficult_1_solution.txt, BITBOARD",
+            "sudoku_not_fun_1.txt, sudoku_not_fun_1_solution.txt, BITBOARD",
+            "sudoku_hardest_ever_1.txt, sudoku_hardest_ever_1_solution.txt, BITBOARD"
     })
-    void solverTest(String toSolveFileName, String solutionFileName) {
+    void solverTest(String toSolveFileName, String solutionFileName, EngineType engine) {
         var sudokuSolver = createSolverFromResourceName(toSolveFileName);
+        sudokuSolver.setEngine(engine);
         sudokuSolver.solve();
         var solvedGrid = sudokuSolver.getGridArray();
 
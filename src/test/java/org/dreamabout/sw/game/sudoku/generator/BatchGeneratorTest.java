@@ -0,0 +1,80 @@
+package org.dreamabout.sw.game.sudoku.generator;
+
+import org.dreamabout.sw.game.sudoku.dlx.ArrayDlxSolver;
+import org.dreamabout.sw.game.sudoku.io.BinaryPuzzleReader;
+import org.dreamabout.sw.game.sudoku.io.PuzzleLines;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void theSameSeedGivesTheSameFileOnAnyNumberOfThreads() throws IOException {
+        var single = generate("single.txt", 1);
+        var parallel = generate("parallel.txt", 3);
+        var lines = Files.readAllLines(single);
+        assertEquals(lines, Files.readAllLines(parallel));
+        assertEquals(50, lines.size());
+        var engine = new ArrayDlxSolver();
+        var grid = new int[9][9];
+        for (String line : lines) {
+            PuzzleLines.parse(line, grid);
+            assertTrue(engine.solve(grid, 2).isUnique());
+        }
+    }
+
+    @Test
+    void writesBinaryFiles() throws IOException {
+        var output = tempDir.resolve("puzzles.bin");
+        var generator = new BatchGenerator();
+        generator.setOutputPath(output.toString());
+        generator.setCount(20);
+        generator.setGridSize(4);
+        generator.setThreads(2);
+        generator.setChunkSize(3);
+        generator.setBinary(true);
+        var summary = generator.run();
+        assertEquals(20, summary.puzzles());
+        try (var puzzles = BinaryPuzzleReader.open(output)) {
+            assertEquals(4, puzzles.gridSize());
+            assertEquals(20, puzzles.count());
+            var grid = new int[4][4];
+            long clues = 0;
+            for (int i = 0; i < puzzles.count(); i++) {
+                puzzles.read(i, grid);
+                assertTrue(new ArrayDlxSolver().solve(grid, 2).isUnique());
+                for (int[] row : grid) {
+                    for (int value : row) {
+                        clues += value != 0 ? 1 : 0;
+                    }
+                }
+            }
+            assertEquals(summary.clues(), clues);
+        }
+    }
+
+    private Path generate(String fileName, int threads) throws IOException {
+        var output = tempDir.resolve(fileName);
+        var generator = new BatchGenerator();
+        generator.setOutputPath(output.toString());
+        generator.setCount(50);
+        generator.setThreads(threads);
+        generator.setChunkSize(7);
+        generator.setSeed(12345L);
+        generator.setSymmetry(Symmetry.ROTATIONAL);
+        var summary = generator.run();
+        assertEquals(50, summary.puzzles());
+        assertTrue(summary.searches() >= 50);
+        return output;
+    }
+}
@@ -0,0 +1,75 @@
+package org.dreamabout.sw.game.sudoku.generator;
+
+import org.dreamabout.sw.game.sudoku.dlx.ArrayDlxSolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PuzzleGeneratorTest {
+
+    @ParameterizedTest
+    @EnumSource(Symmetry.class)
+    void everyPuzzleIsUniqueAndKeepsItsSymmetry(Symmetry symmetry) {
+        var generator = new PuzzleGenerator(9, symmetry, 0);
+        var random = new SplittableRandom(17);
+        var engine = new ArrayDlxSolver();
+        var puzzle = new int[9][9];
+        for (int i = 0; i < 10; i++) {
+            int clues = generator.generate(random, puzzle);
+            assertTrue(engine.solve(puzzle, 2).isUnique());
+            int counted = 0;
+            for (int r = 0; r < 9; r++) {
+                for (int c = 0; c < 9; c++) {
+                    int partner = symmetry.partner(r, c, 9);
+                    assertEquals(puzzle[r][c] == 0, puzzle[partner / 9][partner % 9] == 0);
+                    counted += puzzle[r][c] != 0 ? 1 : 0;
+                }
+            }
+            assertEquals(counted, clues);
+            // every 9x9 puzzle with a unique solution has at least 17 clues
+            assertTrue(clues >= 17 && clues < 40, "clues: " + clues);
+        }
+    }
+
+    @Test
+    void stopsAtTheMinimumNumberOfClues() {
+        var generator = new PuzzleGenerator(9, Symmetry.NONE, 36);
+        var random = new SplittableRandom(3);
+        var puzzle = new int[9][9];
+        for (int i = 0; i < 5; i++) {
+            assertEquals(36, generator.generate(random, puzzle));
+            assertTrue(new ArrayDlxSolver().solve(puzzle, 2).isUnique());
+        }
+    }
+
+    @Test
+    void theSameSeedGivesTheSamePuzzles() {
+        var first = new int[4][4];
+        var second = new int[4][4];
+        var generator = new PuzzleGenerator(4, Symmetry.ROTATIONAL, 0);
+        var firstRandom = new SplittableRandom(99);
+        var secondRandom = new SplittableRandom(99);
+        for (int i = 0; i < 20; i++) {
+            generator.generate(firstRandom, first);
+            // a generator that has made other puzzles before still follows only its random generator
+            generator.generate(new SplittableRandom(i), second);
+            generator.generate(secondRandom, second);
+            assertArrayEquals(first, second);
+            assertTrue(new ArrayDlxSolver().solve(first, 2).isUnique());
+        }
+    }
+
+    @Test
+    void rejectsInvalidNumbersOfClues() {
+        assertThrows(IllegalArgumentException.class, () -> new PuzzleGenerator(9, Symmetry.NONE, 82));
+        assertThrows(IllegalArgumentException.class, () -> new PuzzleGenerator(9, Symmetry.NONE, -1));
+        assertThrows(IllegalArgumentException.class, () -> new PuzzleGenerator(10, Symmetry.NONE, 0));
+    }
+}
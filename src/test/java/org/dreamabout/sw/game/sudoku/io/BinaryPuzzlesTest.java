@@ -0,0 +1,114 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.EASY;
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.HARD;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryPuzzlesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 9, 16, 25})
+    void readsBackEveryPuzzleByIndex(int n) throws IOException {
+        var random = new Random(n);
+        var grids = new ArrayList<int[][]>();
+        for (int i = 0; i < 100; i++) {
+            var grid = new int[n][n];
+            for (int[] row : grid) {
+                for (int c = 0; c < n; c++) {
+                    row[c] = random.nextInt(n + 1);
+                }
+            }
+            grids.add(grid);
+        }
+        var file = tempDir.resolve("puzzles.bin");
+        try (var writer = BinaryPuzzleWriter.create(file, n)) {
+            for (var grid : grids) {
+                writer.write(grid);
+            }
+        }
+        assertTrue(BinaryPuzzles.isBinary(file));
+        assertEquals(BinaryPuzzles.HEADER_BYTES + grids.size() * BinaryPuzzles.recordBytes(n), Files.size(file));
+        try (var reader = BinaryPuzzleReader.open(file)) {
+            assertEquals(n, reader.gridSize());
+            assertEquals(grids.size(), reader.count());
+            var grid = new int[n][n];
+            // random access, backwards
+            for (int i = grids.size() - 1; i >= 0; i--) {
+                reader.read(i, grid);
+                assertArrayEquals(grids.get(i), grid);
+            }
+            int read = 0;
+            for (var chunk : reader.split(7)) {
+                while (chunk.next(grid)) {
+                    assertArrayEquals(grids.get(read++), grid);
+                }
+            }
+            assertEquals(grids.size(), read);
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.read(grids.size(), new int[n][n]));
+        }
+    }
+
+    @Test
+    void packsNineByNineIntoFourBitsPerCell() {
+        assertEquals(4, BinaryPuzzles.bitsPerCell(9));
+        assertEquals(41, BinaryPuzzles.recordBytes(9));
+        assertEquals(160, BinaryPuzzles.recordBytes(16));
+        assertEquals(391, BinaryPuzzles.recordBytes(25));
+    }
+
+    @Test
+    void convertsTextToBinaryAndBack() throws IOException {
+        var text = tempDir.resolve("puzzles.txt");
+        Files.writeString(text, EASY + "\n" + HARD.replace('.', '0') + "\r\n\n" + EASY + "\n");
+        var binary = tempDir.resolve("puzzles.bin");
+        var converter = new PuzzleConverter();
+        converter.setInputPath(text.toString());
+        converter.setOutputPath(binary.toString());
+        assertEquals(3, converter.run());
+        assertTrue(Files.size(binary) < Files.size(text) / 2 + BinaryPuzzles.HEADER_BYTES);
+
+        var back = tempDir.resolve("back.txt");
+        converter.setInputPath(binary.toString());
+        converter.setOutputPath(back.toString());
+        assertEquals(3, converter.run());
+        assertFalse(BinaryPuzzles.isBinary(back));
+        assertEquals(List.of(EASY, HARD, EASY), Files.readAllLines(back));
+    }
+
+    @Test
+    void rejectsTruncatedAndForeignFiles() throws IOException {
+        var file = tempDir.resolve("puzzles.bin");
+        try (var writer = BinaryPuzzleWriter.create(file, 9)) {
+            writer.write(new int[9][9]);
+            writer.write(new int[9][9]);
+        }
+        var truncated = tempDir.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(Files.readAllBytes(file), (int) Files.size(file) - 1));
+        assertThrows(IllegalArgumentException.class, () -> BinaryPuzzleReader.open(truncated));
+
+        var text = tempDir.resolve("puzzles.txt");
+        Files.writeString(text, EASY + "\n");
+        assertFalse(BinaryPuzzles.isBinary(text));
+        assertThrows(IllegalArgumentException.class, () -> BinaryPuzzleReader.open(text));
+    }
+}
@@ -0,0 +1,81 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GridFormatTest {
+
+    private static final String NL = System.lineSeparator();
+
+    private static final int[][] SMALL = {
+            {1, 2, 3, 4},
+            {3, 4, 1, 2},
+            {2, 1, 4, 3},
+            {4, 3, 2, 1}
+    };
+
+    @Test
+    void printsTheGridWithBlockSeparators() {
+        var bytes = new ByteArrayOutputStream();
+        new SudokuGrid(SMALL).print(new PrintStream(bytes));
+        assertEquals("1 2 | 3 4 " + NL + "3 4 | 1 2 " + NL + "---------" + NL + "2 1 | 4 3 " + NL + "4 3 | 2 1 " + NL,
+                bytes.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void alignsNumbersWithTwoDigits() {
+        var grid = new int[16][16];
+        grid[0][0] = 16;
+        grid[0][1] = 7;
+        var out = new byte[GridFormat.PRETTY.maxBytes(16)];
+        int length = GridFormat.PRETTY.encode(grid, out, 0);
+        assertEquals(length, out.length);
+        var text = new String(out, 0, length, StandardCharsets.US_ASCII);
+        assertTrue(text.startsWith("16  7  0  0 |  0"), text);
+    }
+
+    @Test
+    void writesLinesAndRecords() {
+        var line = new byte[GridFormat.LINE.maxBytes(4)];
+        assertEquals(16 + NL.length(), GridFormat.LINE.encode(SMALL, line, 0));
+        assertEquals("1234341221434321" + NL, new String(line, StandardCharsets.US_ASCII));
+
+        var record = new byte[GridFormat.BINARY.maxBytes(4)];
+        var expected = new byte[BinaryPuzzles.recordBytes(4)];
+        BinaryPuzzles.encode(SMALL, expected, 0);
+        assertEquals(expected.length, GridFormat.BINARY.encode(SMALL, record, 0));
+        assertArrayEquals(expected, record);
+    }
+
+    @ParameterizedTest
+    @EnumSource(GridFormat.class)
+    void bufferedWriterProducesTheSameBytesAsSingleGrids(GridFormat format) throws IOException {
+        var expected = new ByteArrayOutputStream();
+        var actual = new ByteArrayOutputStream();
+        var single = new byte[format.maxBytes(9)];
+        // a buffer smaller than a pretty grid has to grow, one that holds a few grids is written out many times
+        try (var writer = new GridWriter(format, actual, 100)) {
+            for (int i = 0; i < 50; i++) {
+                var grid = new int[9][9];
+                for (int[] row : grid) {
+                    Arrays.fill(row, i % 10);
+                }
+                expected.write(single, 0, format.encode(grid, single, 0));
+                writer.write(grid);
+            }
+        }
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+}
@@ -0,0 +1,141 @@
+package org.dreamabout.sw.game.sudoku.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.EASY;
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.HARD;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedPuzzleReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void splitsAtLineBoundariesAndDecodesEveryChunk() throws IOException {
+        var expected = new ArrayList<String>();
+        var content = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            var line = i % 2 == 0 ? EASY : HARD.replace('.', '0');
+            expected.add(line.replace('0', '.'));
+            // mix line endings and blank lines, none of them may end up in a puzzle
+            content.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 7 == 0) {
+                content.append('\n');
+            }
+        }
+        var file = tempDir.resolve("puzzles.txt");
+        Files.writeString(file, content);
+
+        try (var reader = MappedPuzzleReader.open(file)) {
+            // chunks much smaller than a line still have to contain whole lines
+            for (int chunkBytes : List.of(1, 100, 1000, Integer.MAX_VALUE)) {
+                var decoded = new ArrayList<String>();
+                var grid = new int[9][9];
+                for (var chunk : reader.split(chunkBytes)) {
+                    while (chunk.next(grid)) {
+                        var line = new StringBuilder();
+                        PuzzleLines.format(grid, line);
+                        decoded.add(line.toString());
+                    }
+                }
+                assertEquals(expected, decoded, "chunk size " + chunkBytes);
+            }
+
+            var all = reader.all();
+            var cells = new byte[PuzzleLines.LINE_LENGTH];
+            var first = reader.split(Integer.MAX_VALUE).getFirst();
+            assertTrue(first.next(cells));
+            assertEquals(3, cells[2]);
+            int count = 0;
+            while (all.next(new int[9][9])) {
+                count++;
+            }
+            assertEquals(expected.size(), count);
+        }
+    }
+
+    @Test
+    void splitsIntoChunksOfTheSameNumberOfPuzzles() throws IOException {
+        var content = new StringBuilder("\n");
+        for (int i = 0; i < 23; i++) {
+            content.append(i % 2 == 0 ? EASY : HARD).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 5 == 0) {
+                content.append("\r\n");
+            }
+        }
+        var file = tempDir.resolve("puzzles.txt");
+        Files.writeString(file, content);
+        try (var reader = MappedPuzzleReader.open(file)) {
+            var chunks = reader.split(5, 9);
+            assertEquals(5, chunks.size());
+            var grid = new int[9][9];
+            for (int i = 0; i < chunks.size(); i++) {
+                int count = 0;
+                while (chunks.get(i).next(grid)) {
+                    var line = new StringBuilder();
+                    PuzzleLines.format(grid, line);
+                    assertEquals((5 * i + count) % 2 == 0 ? EASY : HARD, line.toString());
+                    count++;
+                }
+                assertEquals(i < 4 ? 5 : 3, count);
+            }
+        }
+    }
+
+    @Test
+    void rejectsMalformedLines() throws IOException {
+        var file = tempDir.resolve("broken.txt");
+        // a line with a character that is not a cell, then one that is a cell too short
+        Files.writeString(file, EASY + "\n" + EASY.substring(1) + "x\n" + HARD + "\n" + EASY.substring(1) + "\n" + HARD + "\n");
+        try (var reader = MappedPuzzleReader.open(file)) {
+            var cursor = reader.all();
+            var grid = new int[9][9];
+            assertTrue(cursor.next(grid));
+            var error = assertThrows(IllegalArgumentException.class, () -> cursor.next(grid));
+            assertTrue(error.getMessage().contains("offset 82"), error.getMessage());
+            // the cursor goes on with the line after the broken one
+            assertTrue(cursor.next(grid));
+            assertEquals(HARD, line(grid));
+            assertThrows(IllegalArgumentException.class, () -> cursor.next(grid));
+            assertTrue(cursor.next(grid));
+            assertEquals(HARD, line(grid));
+            assertFalse(cursor.next(grid));
+
+            // every broken line is one puzzle of the split, so the chunks after it still line up
+            var chunks = reader.split(1, 9);
+            assertEquals(5, chunks.size());
+            assertTrue(chunks.get(2).next(grid));
+            assertEquals(HARD, line(grid));
+            assertThrows(IllegalArgumentException.class, () -> chunks.get(3).next(grid));
+            assertFalse(chunks.get(3).next(grid));
+            assertTrue(chunks.get(4).next(grid));
+            assertEquals(HARD, line(grid));
+        }
+    }
+
+    @Test
+    void emptyFileHasNoPuzzles() throws IOException {
+        var file = Files.createFile(tempDir.resolve("empty.txt"));
+        try (var reader = MappedPuzzleReader.open(file)) {
+            assertTrue(reader.split(1024).isEmpty());
+            assertFalse(reader.all().next(new int[9][9]));
+        }
+    }
+
+    private static String line(int[][] grid) {
+        var line = new StringBuilder();
+        PuzzleLines.format(grid, line);
+        return line.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package org.dreamabout.sw.game.sudoku.propagation;
+
+import org.dreamabout.sw.game.sudoku.dlx.EngineType;
+import org.dreamabout.sw.game.sudoku.dlx.SudokuGrid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConstraintPropagatorTest {
+
+    @Test
+    void solvesAnEasyPuzzleWithoutSearch() {
+        var grid = load("sudoku_easy_1.txt");
+        var result = new ConstraintPropagator().propagate(grid);
+        assertEquals(PropagationResult.Status.SOLVED, result.status());
+        assertTrue(Arrays.deepEquals(load("sudoku_easy_1_solution.txt"), result.grid()));
+        assertEquals(emptyCells(grid), result.resolvedCells());
+    }
+
+    @Test
+    void onlyFillsCellsThatAgreeWithTheSolution() {
+        var grid = load("sudoku_hardest_ever_1.txt");
+        var solution = load("sudoku_hardest_ever_1_solution.txt");
+        var result = new ConstraintPropagator().propagate(grid);
+        assertEquals(PropagationResult.Status.REDUCED, result.status());
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                int value = result.grid()[r][c];
+                assertTrue(value == 0 || value == solution[r][c], "cell " + r + "," + c);
+            }
+        }
+        assertEquals(emptyCells(grid) - emptyCells(result.grid()), result.resolvedCells());
+    }
+
+    @Test
+    void detectsContradictingClues() {
+        var grid = new int[9][9];
+        grid[4][4] = 7;
+        grid[3][3] = 7; // the same digit twice in the centre block
+        assertEquals(PropagationResult.Status.CONTRADICTION, new ConstraintPropagator().propagate(grid).status());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "sudoku_easy_1.txt, sudoku_easy_1_solution.txt, DLX_ARRAY",
+            "sudoku_difficult_1.txt, sudoku_difficult_1_solution.txt, DLX_OBJECT",
+            "sudoku_not_fun_1.txt, sudoku_not_fun_1_solution.txt, DLX_ARRAY",
+            "sudoku_hardest_ever_1.txt, sudoku_hardest_ever_1_solution.txt, BITBOARD"
+    })
+    void engineSolvesTheReducedPuzzle(String toSolveFileName, String solutionFileName, EngineType engineType) {
+        var engine = new PropagatingEngine(engineType.create());
+        var result = engine.solve(new SudokuGrid(load(toSolveFileName)), 2);
+        assertTrue(result.isUnique());
+        assertTrue(Arrays.deepEquals(load(solutionFileName), result.solution()));
+    }
+
+    private static int emptyCells(int[][] grid) {
+        return (int) Arrays.stream(grid).flatMapToInt(Arrays::stream).filter(v -> v == 0).count();
+    }
+}
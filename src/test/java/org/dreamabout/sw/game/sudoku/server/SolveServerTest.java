@@ -0,0 +1,107 @@
+package org.dreamabout.sw.game.sudoku.server;
+
+import org.dreamabout.sw.game.sudoku.dlx.ArrayDlxSolver;
+import org.dreamabout.sw.game.sudoku.io.PuzzleLines;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.PUZZLES;
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.line;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveServerTest {
+
+    @Test
+    void answersABatchInOrder() throws IOException {
+        try (var server = new SolveServer()) {
+            server.setPort(0);
+            server.setThreads(2);
+            server.start();
+            var puzzles = new ArrayList<String>();
+            var expected = new ArrayList<String>();
+            for (String puzzle : PUZZLES) {
+                puzzles.add(line(puzzle + ".txt"));
+                expected.add(line(puzzle + "_solution.txt"));
+            }
+            puzzles.add("11" + ".".repeat(PuzzleLines.LINE_LENGTH - 2));
+            expected.add(SolveServer.UNSOLVABLE);
+            puzzles.add("123");
+            puzzles.add("x".repeat(PuzzleLines.LINE_LENGTH));
+
+            var answers = send(server, puzzles);
+            assertEquals(expected, answers.subList(0, expected.size()));
+            assertTrue(answers.get(expected.size()).startsWith(SolveServer.ERROR));
+            assertTrue(answers.get(expected.size() + 1).startsWith(SolveServer.ERROR));
+            // a second connection is served by the same warm solvers
+            assertEquals(expected.subList(0, 1), send(server, puzzles.subList(0, 1)));
+            assertEquals(PUZZLES.size() + 1, server.statistics().solved());
+        }
+    }
+
+    @Test
+    void rejectsAnEmptyQueue() {
+        var server = new SolveServer();
+        server.setQueueSize(0);
+        var error = assertThrows(IllegalArgumentException.class, server::start);
+        assertEquals("--queue-size must be at least 1, was: 0", error.getMessage());
+    }
+
+    @Test
+    void answersBusyWhenTheQueueIsFull() throws Exception {
+        var release = new CountDownLatch(1);
+        try (var server = new SolveServer()) {
+            server.setPort(0);
+            server.setThreads(1);
+            server.setQueueSize(1);
+            // the only solver thread blocks on its first puzzle until all the puzzles have been submitted
+            server.setEngineFactory(() -> (grid, maxSolutions) -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new ArrayDlxSolver().solve(grid, maxSolutions);
+            });
+            server.start();
+            var puzzle = line("sudoku_easy_1.txt");
+            var solution = line("sudoku_easy_1_solution.txt");
+            try (var socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                 var out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+                 var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+                for (int i = 0; i < 5; i++) {
+                    out.println(puzzle);
+                }
+                // one puzzle is being solved, one waits in the queue, the other three are turned away
+                while (server.statistics().requests() < 5) {
+                    Thread.sleep(1);
+                }
+                release.countDown();
+                socket.shutdownOutput();
+                assertEquals(List.of(solution, solution, SolveServer.BUSY, SolveServer.BUSY, SolveServer.BUSY), in.lines().toList());
+            }
+            assertEquals(3, server.statistics().rejected());
+        }
+    }
+
+    private static List<String> send(SolveServer server, List<String> puzzles) throws IOException {
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             var out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+            puzzles.forEach(out::println);
+            socket.shutdownOutput();
+            return in.lines().toList();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.dreamabout.sw.game.sudoku.vector;
+
+import org.dreamabout.sw.game.sudoku.dlx.ArrayDlxSolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.PUZZLES;
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.copy;
+import static org.dreamabout.sw.game.sudoku.TestPuzzles.load;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorBatchSolverTest {
+
+    @Test
+    void solvesEveryLaneOfABatch() {
+        var solver = new VectorBatchSolver(9, new ArrayDlxSolver());
+        int count = Math.min(solver.lanes(), PUZZLES.size());
+        var grids = new int[solver.lanes()][][];
+        for (int i = 0; i < count; i++) {
+            grids[i] = load(PUZZLES.get(i) + ".txt");
+        }
+        var solved = new boolean[solver.lanes()];
+        assertEquals(count, solver.solve(grids, count, solved));
+        for (int i = 0; i < count; i++) {
+            assertTrue(solved[i]);
+            assertArrayEquals(load(PUZZLES.get(i) + "_solution.txt"), grids[i]);
+        }
+        // the easy puzzle needs nothing but singles, the hardest one needs the fallback engine
+        assertTrue(solver.getPropagated() >= 1);
+        assertTrue(solver.getSearched() >= (count == PUZZLES.size() ? 1 : 0));
+        assertEquals(count, solver.getPropagated() + solver.getSearched());
+    }
+
+    @Test
+    void leavesContradictingPuzzlesAsTheyWere() {
+        var solver = new VectorBatchSolver(9, new ArrayDlxSolver());
+        var contradicting = load("sudoku_easy_1.txt");
+        int empty = 0;
+        while (contradicting[0][empty] != 0) {
+            empty++;
+        }
+        // the digit of the first clue of the row placed again in the same row
+        contradicting[0][empty] = Arrays.stream(contradicting[0]).filter(value -> value != 0).findFirst().orElseThrow();
+        var given = copy(contradicting);
+        var grids = new int[][][]{contradicting, load("sudoku_easy_1.txt")};
+        var solved = new boolean[solver.lanes()];
+        assertEquals(1, solver.solve(grids, 2, solved));
+        assertFalse(solved[0]);
+        assertArrayEquals(given, grids[0]);
+        assertTrue(solved[1]);
+        assertEquals(1, solver.getUnsolvable());
+    }
+
+    @Test
+    void solvesLargerGrids() {
+        var solver = new VectorBatchSolver(16, new ArrayDlxSolver());
+        var puzzle = load("sudoku_16x16_1.txt");
+        var grids = new int[][][]{copy(puzzle)};
+        var solved = new boolean[solver.lanes()];
+        assertEquals(1, solver.solve(grids, 1, solved));
+        var solution = grids[0];
+        for (int r = 0; r < 16; r++) {
+            for (int c = 0; c < 16; c++) {
+                assertTrue(puzzle[r][c] == 0 || puzzle[r][c] == solution[r][c]);
+            }
+        }
+        // a complete grid with the same clues is its own solution
+        var check = new int[][][]{copy(solution)};
+        assertEquals(1, solver.solve(check, 1, solved));
+        assertArrayEquals(solution, check[0]);
+    }
+
+    @Test
+    void rejectsMorePuzzlesThanLanes() {
+        var solver = new VectorBatchSolver(9, new ArrayDlxSolver());
+        int tooMany = solver.lanes() + 1;
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(new int[tooMany][9][9], tooMany, new boolean[tooMany]));
+    }
+}